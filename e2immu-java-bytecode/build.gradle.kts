@@ -42,6 +42,7 @@ dependencies {
 
     testImplementation("org.e2immu:e2immu-cst-impl:$version")
     testImplementation("org.e2immu:e2immu-inspection-resource:$version")
+    testImplementation("org.e2immu:e2immu-inspection-parser:$version")
 
     testImplementation("org.junit.jupiter:junit-jupiter-api:$jupiterApiVersion")
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:$jupiterEngineVersion")
@@ -0,0 +1,118 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.bytecode.java.asm;
+
+import org.e2immu.language.cst.api.info.TypeInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/*
+Non-blocking access to the byte code inspector: loads are scheduled on an executor, and the caller
+receives a CompletableFuture. Concurrent requests for the same fully qualified name share a single load.
+
+Loads take the inspection lock of the inspector, like direct calls from the parser and the resolver do,
+so that they can safely overlap with those. Inspection itself is therefore not parallel: the gain is in the
+caller being able to continue (e.g. parsing sources) while types are loaded.
+
+Closing the loader shuts down the executor only when the loader created it, see withVirtualThreads.
+ */
+public class AsyncTypeLoader implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncTypeLoader.class);
+
+    private final ByteCodeInspectorImpl byteCodeInspector;
+    private final Executor executor;
+    // the executor, when it was created by this class rather than by the caller
+    private final ExecutorService ownedExecutor;
+    private final Map<String, CompletableFuture<TypeInfo>> inFlight = new ConcurrentHashMap<>();
+
+    public AsyncTypeLoader(ByteCodeInspectorImpl byteCodeInspector, Executor executor) {
+        this(byteCodeInspector, executor, null);
+    }
+
+    private AsyncTypeLoader(ByteCodeInspectorImpl byteCodeInspector, Executor executor,
+                            ExecutorService ownedExecutor) {
+        this.byteCodeInspector = byteCodeInspector;
+        this.executor = executor;
+        this.ownedExecutor = ownedExecutor;
+    }
+
+    /*
+    The loader owns its executor; close it when done.
+     */
+    public static AsyncTypeLoader withVirtualThreads(ByteCodeInspectorImpl byteCodeInspector) {
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        return new AsyncTypeLoader(byteCodeInspector, executorService, executorService);
+    }
+
+    /*
+    Waits for the loads in progress when the loader owns its executor; does nothing otherwise.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) ownedExecutor.close();
+    }
+
+    /*
+    Same semantics as getOrCreate(fqn, LoadMode.NOW): the future completes with null when the type is not
+    accepted, or cannot be found on the class path.
+     */
+    public CompletableFuture<TypeInfo> load(String fqn) {
+        return schedule(fqn, () -> byteCodeInspector.getOrCreate(fqn, LocalTypeMap.LoadMode.NOW));
+    }
+
+    public CompletableFuture<TypeInfo> load(TypeInfo knownType) {
+        return schedule(knownType.fullyQualifiedName(), () -> byteCodeInspector.load(knownType));
+    }
+
+    /*
+    The resulting list has the same order as the collection of fully qualified names.
+     */
+    public CompletableFuture<List<TypeInfo>> loadAll(Collection<String> fqns) {
+        List<CompletableFuture<TypeInfo>> futures = fqns.stream().map(this::load).toList();
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(v -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    private CompletableFuture<TypeInfo> schedule(String fqn, Supplier<TypeInfo> loader) {
+        CompletableFuture<TypeInfo> future = new CompletableFuture<>();
+        CompletableFuture<TypeInfo> existing = inFlight.putIfAbsent(fqn, future);
+        if (existing != null) {
+            LOGGER.debug("Coalescing request for {}", fqn);
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(loader.get());
+                } catch (Throwable t) {
+                    // also errors such as a StackOverflowError: otherwise, the future would never complete
+                    future.completeExceptionally(t);
+                } finally {
+                    inFlight.remove(fqn, future);
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            inFlight.remove(fqn, future);
+            future.completeExceptionally(ree);
+        }
+        return future;
+    }
+}
@@ -14,8 +14,10 @@
 
 package org.e2immu.bytecode.java.asm;
 
+import org.e2immu.bytecode.java.ExpressionFactory;
 import org.e2immu.language.cst.api.element.CompilationUnit;
 import org.e2immu.language.cst.api.element.FingerPrint;
+import org.e2immu.language.cst.api.expression.Expression;
 import org.e2immu.language.cst.api.info.TypeInfo;
 import org.e2immu.language.cst.api.runtime.Runtime;
 import org.e2immu.language.inspection.api.resource.ByteCodeInspector;
@@ -30,15 +32,24 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 /*
 The ByteCodeInspectorImpl is used as a singleton.
-Its access is protected in CompiledTypesManager
+
+Inspection is not thread-safe: the local type map, the type parameter contexts, and the types being built are
+shared by the recursive loads of one request. Every entry point, including the on-demand inspection hook, therefore
+runs while holding the inspection lock, whether it is called by the parser, the resolver, or an AsyncTypeLoader.
+The lock is reentrant, as inspection recurses through LocalTypeMap; it is not a monitor, so that virtual threads
+waiting for it do not pin their carrier thread.
 */
 public class ByteCodeInspectorImpl implements ByteCodeInspector, LocalTypeMap {
     private static final Logger LOGGER = LoggerFactory.getLogger(ByteCodeInspectorImpl.class);
+    private static final int MAX_SHARED_CONSTANTS = 4096;
+    private static final int MAX_SHARED_INT = 1024;
+    private static final int MAX_SHARED_STRING_LENGTH = 16;
 
     private enum Status {
         BEING_LOADED, DONE, IN_QUEUE, ON_DEMAND
@@ -49,8 +60,12 @@ public class ByteCodeInspectorImpl implements ByteCodeInspector, LocalTypeMap {
                             TypeParameterContext typeParameterContext) {
     }
 
-    private final ReentrantReadWriteLock localTypeMapLock = new ReentrantReadWriteLock();
+    private final ReentrantLock inspectionLock = new ReentrantLock();
     private final Map<String, TypeData> localTypeMap = new LinkedHashMap<>();
+    // shared expressions for the most frequent constant values; see constantValueExpression
+    private final Map<Object, Expression> constantValueExpressions = new ConcurrentHashMap<>();
+    private final LibraryTypeCache libraryTypeCache;
+    private LoadTrace loadTrace;
     private final Runtime runtime;
     private final CompiledTypesManager compiledTypesManager;
     private final MessageDigest md;
@@ -60,9 +75,25 @@ public class ByteCodeInspectorImpl implements ByteCodeInspector, LocalTypeMap {
                                  CompiledTypesManager compiledTypesManager,
                                  boolean computeFingerPrints,
                                  boolean allowCreationOfStubTypes) {
+        this(runtime, compiledTypesManager, computeFingerPrints, allowCreationOfStubTypes,
+                LibraryTypeCache.UNBOUNDED);
+    }
+
+    /*
+    maxRetainedLibraryTypes: the number of fully inspected types that are kept strongly referenced, in LRU order.
+    Beyond that number, types can be reclaimed when they are not reachable anymore; they are reloaded on demand.
+    When bounded, inspected types are not added to the CompiledTypesManager, whose map would keep every one of
+    them alive: the manager finds them again through this inspector (getOrCreate, load).
+     */
+    public ByteCodeInspectorImpl(Runtime runtime,
+                                 CompiledTypesManager compiledTypesManager,
+                                 boolean computeFingerPrints,
+                                 boolean allowCreationOfStubTypes,
+                                 int maxRetainedLibraryTypes) {
         this.runtime = runtime;
         this.compiledTypesManager = compiledTypesManager;
         this.allowCreationOfStubTypes = allowCreationOfStubTypes;
+        this.libraryTypeCache = new LibraryTypeCache(maxRetainedLibraryTypes);
         for (TypeInfo ti : runtime.predefinedObjects()) {
             localTypeMap.put(ti.fullyQualifiedName(),
                     new TypeData(ti, Status.IN_QUEUE, new TypeParameterContext()));
@@ -85,8 +116,13 @@ public class ByteCodeInspectorImpl implements ByteCodeInspector, LocalTypeMap {
 
     @Override
     public TypeInfo getLocal(String fqName) {
-        TypeData typeData = localTypeMapGet(fqName);
-        return typeData == null ? null : typeData.typeInfo;
+        inspectionLock.lock();
+        try {
+            TypeData typeData = localTypeMapGet(fqName);
+            return typeData == null ? null : typeData.typeInfo;
+        } finally {
+            inspectionLock.unlock();
+        }
     }
 
     @Override
@@ -95,16 +131,23 @@ public class ByteCodeInspectorImpl implements ByteCodeInspector, LocalTypeMap {
     }
 
     private TypeData localTypeMapGet(String fqn) {
-        localTypeMapLock.readLock().lock();
+        TypeData typeData = localTypeMap.get(fqn);
+        if (typeData != null) return typeData;
+        TypeInfo done = libraryTypeCache.get(fqn);
+        return done == null ? null : new TypeData(done, Status.DONE, null);
+    }
+
+    @Override
+    public TypeInfo getOrCreate(String fqn, LoadMode loadMode) {
+        inspectionLock.lock();
         try {
-            return localTypeMap.get(fqn);
+            return internalGetOrCreate(fqn, loadMode);
         } finally {
-            localTypeMapLock.readLock().unlock();
+            inspectionLock.unlock();
         }
     }
 
-    @Override
-    public TypeInfo getOrCreate(String fqn, LoadMode loadMode) {
+    private TypeInfo internalGetOrCreate(String fqn, LoadMode loadMode) {
         if (!compiledTypesManager.acceptFQN(fqn)) {
             return null;
         }
@@ -133,6 +176,15 @@ public class ByteCodeInspectorImpl implements ByteCodeInspector, LocalTypeMap {
 
     @Override
     public TypeInfo load(TypeInfo knownType) {
+        inspectionLock.lock();
+        try {
+            return internalLoad(knownType);
+        } finally {
+            inspectionLock.unlock();
+        }
+    }
+
+    private TypeInfo internalLoad(TypeInfo knownType) {
         String fqn = knownType.fullyQualifiedName();
         TypeData local = localTypeMapGet(fqn);
         TypeInfo typeInfo;
@@ -162,6 +214,18 @@ public class ByteCodeInspectorImpl implements ByteCodeInspector, LocalTypeMap {
                                     SourceFile path,
                                     TypeParameterContext typeParameterContext,
                                     LoadMode loadMode) {
+        inspectionLock.lock();
+        try {
+            return internalInspectFromPath(typeInfoOrNull, path, typeParameterContext, loadMode);
+        } finally {
+            inspectionLock.unlock();
+        }
+    }
+
+    private TypeInfo internalInspectFromPath(TypeInfo typeInfoOrNull,
+                                             SourceFile path,
+                                             TypeParameterContext typeParameterContext,
+                                             LoadMode loadMode) {
         assert path != null && path.path().endsWith(".class");
         String fqn;
         if (typeInfoOrNull != null) fqn = typeInfoOrNull.fullyQualifiedName();
@@ -193,26 +257,43 @@ public class ByteCodeInspectorImpl implements ByteCodeInspector, LocalTypeMap {
             return continueLoadByteCodeAndStartASM(path, fqn, typeInfo1, typeParameterContext);
         }
         Status newStatus = loadMode == LoadMode.QUEUE ? Status.IN_QUEUE : Status.ON_DEMAND;
+        if (loadTrace != null && td == null) {
+            loadTrace.reference(fqn, loadMode);
+        }
         if (td == null || newStatus != td.status) {
             localTypeMapPut(fqn, new TypeData(typeInfo1, newStatus, new TypeParameterContext()));
         }
         if (!typeInfo1.haveOnDemandInspection()) {
-            typeInfo1.setOnDemandInspection(ti -> {
-                synchronized (ByteCodeInspectorImpl.this) {
-                    inspectFromPath(ti, path, typeParameterContext, LoadMode.NOW);
-                }
-            });
+            typeInfo1.setOnDemandInspection(ti -> inspectFromPath(ti, path, typeParameterContext, LoadMode.NOW));
         }
         return typeInfo1;
     }
 
     private TypeData localTypeMapPut(String fqn, TypeData typeData) {
-        localTypeMapLock.writeLock().lock();
-        try {
-            return localTypeMap.put(fqn, typeData);
-        } finally {
-            localTypeMapLock.writeLock().unlock();
-        }
+        return localTypeMap.put(fqn, typeData);
+    }
+
+    /*
+    once inspected, the type parameter context is not needed anymore, and the type moves to the library type cache
+     */
+    private void localTypeMapDone(String fqn, TypeInfo typeInfo) {
+        localTypeMap.remove(fqn);
+        libraryTypeCache.put(fqn, typeInfo);
+    }
+
+    /*
+    opt-in: records why types are being loaded. Set before the first type is loaded.
+     */
+    public void setLoadTrace(LoadTrace loadTrace) {
+        this.loadTrace = loadTrace;
+    }
+
+    public LoadTrace loadTrace() {
+        return loadTrace;
+    }
+
+    public LibraryTypeCache libraryTypeCache() {
+        return libraryTypeCache;
     }
 
     private TypeInfo createTypeInfo(SourceFile source,
@@ -249,6 +330,7 @@ public class ByteCodeInspectorImpl implements ByteCodeInspector, LocalTypeMap {
                                                      TypeParameterContext typeParameterContext) {
         TypeData prev = localTypeMapPut(fqn, new TypeData(typeInfo, Status.BEING_LOADED, typeParameterContext));
         assert prev == null || prev.status != Status.DONE;
+        if (loadTrace != null) loadTrace.startLoad(fqn);
         try {
             byte[] classBytes = compiledTypesManager.classPath().loadBytes(path.path());
             if (classBytes == null) {
@@ -266,14 +348,16 @@ public class ByteCodeInspectorImpl implements ByteCodeInspector, LocalTypeMap {
                     typeParameterContext, path);
             classReader.accept(myClassVisitor, 0);
             LOGGER.debug("Finished bytecode inspection of {}", fqn);
-            compiledTypesManager.add(typeInfo);
-            localTypeMapPut(fqn, new TypeData(typeInfo, Status.DONE, typeParameterContext));
+            if (!libraryTypeCache.isBounded()) compiledTypesManager.add(typeInfo);
+            localTypeMapDone(fqn, typeInfo);
             return typeInfo;
         } catch (RuntimeException | AssertionError re) {
             LOGGER.error("Path = {}", path);
             LOGGER.error("FQN  = {}", fqn);
             LOGGER.error("Number of compiled types = {}", compiledTypesManager.typesLoaded().size());
             throw re;
+        } finally {
+            if (loadTrace != null) loadTrace.endLoad(fqn);
         }
     }
 
@@ -288,5 +372,28 @@ public class ByteCodeInspectorImpl implements ByteCodeInspector, LocalTypeMap {
     public boolean allowCreationOfStubTypes() {
         return allowCreationOfStubTypes;
     }
+
+    /*
+    Only booleans, characters, small integers and short strings are shared, and at most MAX_SHARED_CONSTANTS of
+    them: the map lives as long as the inspector, and must not keep every constant of every type ever loaded.
+     */
+    @Override
+    public Expression constantValueExpression(Object value) {
+        // no recursion into the type map: constant values are never Type objects or arrays
+        if (!isShared(value)) return ExpressionFactory.from(runtime, this, value);
+        Expression expression = constantValueExpressions.get(value);
+        if (expression != null) return expression;
+        Expression created = ExpressionFactory.from(runtime, this, value);
+        if (constantValueExpressions.size() >= MAX_SHARED_CONSTANTS) return created;
+        Expression previous = constantValueExpressions.putIfAbsent(value, created);
+        return previous == null ? created : previous;
+    }
+
+    private static boolean isShared(Object value) {
+        return value instanceof Boolean
+               || value instanceof Character
+               || value instanceof Integer i && i >= -MAX_SHARED_INT && i <= MAX_SHARED_INT
+               || value instanceof String s && s.length() <= MAX_SHARED_STRING_LENGTH;
+    }
 }
 
@@ -0,0 +1,127 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.bytecode.java.asm;
+
+import org.e2immu.language.cst.api.info.TypeInfo;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+Holds the types of which the bytecode inspection has been completed.
+
+The most recently used types are kept in an LRU map of bounded size. Types that drop out of the LRU map are
+only weakly referenced: as long as an analysis result, or another type, still refers to them, they are
+returned as before; once they are unreachable, the garbage collector can reclaim them, and the next request
+for the type goes through the normal inspection process again.
+
+Only types loaded from bytecode pass through this cache; source types never do.
+When the cache is bounded, the ByteCodeInspectorImpl does not add types to the CompiledTypesManager, which would
+keep them alive; see its constructor.
+ */
+public class LibraryTypeCache {
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private final int maxRetained;
+    private final Map<String, TypeInfo> retained;
+    private final Map<String, KeyedReference> released = new HashMap<>();
+    private final ReferenceQueue<TypeInfo> queue = new ReferenceQueue<>();
+    private int reclaimed;
+
+    private static class KeyedReference extends WeakReference<TypeInfo> {
+        private final String fqn;
+
+        KeyedReference(String fqn, TypeInfo typeInfo, ReferenceQueue<TypeInfo> queue) {
+            super(typeInfo, queue);
+            this.fqn = fqn;
+        }
+    }
+
+    public LibraryTypeCache(int maxRetained) {
+        assert maxRetained > 0;
+        this.maxRetained = maxRetained;
+        this.retained = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TypeInfo> eldest) {
+                if (size() > LibraryTypeCache.this.maxRetained) {
+                    released.put(eldest.getKey(), new KeyedReference(eldest.getKey(), eldest.getValue(), queue));
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isBounded() {
+        return maxRetained != UNBOUNDED;
+    }
+
+    public synchronized TypeInfo get(String fqn) {
+        TypeInfo typeInfo = retained.get(fqn);
+        if (typeInfo != null) return typeInfo;
+        KeyedReference ref = released.remove(fqn);
+        if (ref == null) return null;
+        TypeInfo stillReachable = ref.get();
+        if (stillReachable != null) {
+            // back into the LRU map; this may release another type
+            retained.put(fqn, stillReachable);
+        } else {
+            reclaimed++;
+        }
+        return stillReachable;
+    }
+
+    public synchronized void put(String fqn, TypeInfo typeInfo) {
+        purge();
+        released.remove(fqn);
+        retained.put(fqn, typeInfo);
+    }
+
+    private void purge() {
+        Reference<? extends TypeInfo> ref;
+        while ((ref = queue.poll()) != null) {
+            String fqn = ((KeyedReference) ref).fqn;
+            // the map may already contain a newer reference for the same type
+            if (released.get(fqn) == ref) {
+                released.remove(fqn);
+                reclaimed++;
+            }
+        }
+    }
+
+    /*
+    for testing: behave as if the garbage collector had reclaimed all types that have dropped out of the LRU map,
+    whether they are still reachable or not
+     */
+    synchronized void clearReleased() {
+        for (KeyedReference ref : released.values()) {
+            ref.clear();
+            ref.enqueue();
+        }
+    }
+
+    public synchronized int retained() {
+        return retained.size();
+    }
+
+    public synchronized int reclaimed() {
+        purge();
+        return reclaimed;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.bytecode.java.asm;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/*
+Opt-in tracing of the reasons why types are loaded by the byte code inspector.
+
+Two kinds of events are recorded:
+- a reference: the type is created in TRIGGER or QUEUE mode, typically because it occurs in a signature
+  of the type being loaded;
+- a load: the actual bytecode inspection starts, either directly (mode NOW) while another type is being loaded,
+  or on demand, from outside the inspector.
+
+Each event records the type that was being loaded at the time (null when there is none), and the call site:
+the first frames of the stack outside the inspector itself, e.g. MyClassVisitor.visitMethod.
+The result can be written as a Graphviz file, where the edges point from cause to effect.
+ */
+public class LoadTrace {
+    private static final int FRAMES = 3;
+    private static final Set<String> SKIP = Set.of(ByteCodeInspectorImpl.class.getName(), LoadTrace.class.getName());
+
+    public enum Kind {REFERENCE, LOAD}
+
+    public record Event(Kind kind, String fqn, String cause, LocalTypeMap.LoadMode loadMode, String site) {
+    }
+
+    private final List<Event> events = new ArrayList<>();
+    private final ThreadLocal<Deque<String>> beingLoaded = ThreadLocal.withInitial(ArrayDeque::new);
+    private final StackWalker stackWalker = StackWalker.getInstance();
+
+    void reference(String fqn, LocalTypeMap.LoadMode loadMode) {
+        add(new Event(Kind.REFERENCE, fqn, beingLoaded.get().peek(), loadMode, site()));
+    }
+
+    void startLoad(String fqn) {
+        Deque<String> stack = beingLoaded.get();
+        add(new Event(Kind.LOAD, fqn, stack.peek(), LocalTypeMap.LoadMode.NOW, site()));
+        stack.push(fqn);
+    }
+
+    void endLoad(String fqn) {
+        String popped = beingLoaded.get().poll();
+        assert popped == null || popped.equals(fqn);
+    }
+
+    private synchronized void add(Event event) {
+        events.add(event);
+    }
+
+    private String site() {
+        return stackWalker.walk(s -> s
+                .filter(f -> !SKIP.contains(f.getClassName()) && !f.getClassName().startsWith("java."))
+                .limit(FRAMES)
+                .map(f -> simpleName(f.getClassName()) + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .collect(Collectors.joining(" < ")));
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    public synchronized List<Event> events() {
+        return List.copyOf(events);
+    }
+
+    /*
+    the chain of events that led to the loading of a type, starting with the load of the type itself,
+    ending with a load that was not caused by another load
+     */
+    public synchronized List<Event> chain(String fqn) {
+        Map<String, Event> firstLoad = new HashMap<>();
+        for (Event event : events) {
+            if (event.kind == Kind.LOAD) firstLoad.putIfAbsent(event.fqn, event);
+        }
+        List<Event> chain = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        Event event = firstLoad.get(fqn);
+        while (event != null && seen.add(event.fqn)) {
+            chain.add(event);
+            event = event.cause == null ? null : firstLoad.get(event.cause);
+        }
+        return chain;
+    }
+
+    public synchronized void writeDot(Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("digraph loads {\n");
+            for (Event event : events) {
+                String from = event.cause == null ? "<on demand>" : event.cause;
+                String style = event.kind == Kind.LOAD ? "solid" : "dashed";
+                writer.write("  " + quote(from) + " -> " + quote(event.fqn) + " [style=" + style
+                             + ", label=" + quote(event.loadMode + " " + event.site) + "];\n");
+            }
+            writer.write("}\n");
+        }
+    }
+
+    private static String quote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -2,6 +2,7 @@ package org.e2immu.bytecode.java.asm;
 
 
 import org.e2immu.annotation.Modified;
+import org.e2immu.language.cst.api.expression.Expression;
 import org.e2immu.language.cst.api.info.TypeInfo;
 import org.e2immu.language.inspection.api.resource.SourceFile;
 
@@ -46,4 +47,11 @@ public interface LocalTypeMap {
 
     boolean allowCreationOfStubTypes();
 
+    /*
+    The ConstantValue attribute of a field is an Integer, Float, Long, Double or String.
+    The same values occur in thousands of fields (think java.lang.Character, or generated code), so
+    the resulting constant expressions, which are immutable and have no source, are shared.
+     */
+    Expression constantValueExpression(Object value);
+
 }
@@ -14,7 +14,6 @@
 
 package org.e2immu.bytecode.java.asm;
 
-import org.e2immu.bytecode.java.ExpressionFactory;
 import org.e2immu.language.cst.api.element.CompilationUnit;
 import org.e2immu.language.cst.api.expression.Expression;
 import org.e2immu.language.cst.api.info.FieldInfo;
@@ -43,6 +42,8 @@ public class MyClassVisitor extends ClassVisitor {
     private TypeInfo.Builder currentTypeBuilder;
     private String currentTypePath;
     private boolean currentTypeIsInterface;
+    private boolean currentTypeHasInterfaces;
+    private int abstractMethodsNotFromObject;
 
     public MyClassVisitor(Runtime runtime,
                           TypeInfo typeInfo,
@@ -86,6 +87,7 @@ public class MyClassVisitor extends ClassVisitor {
         TypeNature currentTypeNature = typeNatureFromOpCode(access);
         currentTypeBuilder.setTypeNature(currentTypeNature);
         currentTypeIsInterface = currentTypeNature.isInterface();
+        currentTypeHasInterfaces = interfaces != null && interfaces.length > 0;
 
         checkTypeFlags(access, currentTypeBuilder);
         if (currentTypeNature.isClass()) {
@@ -237,7 +239,7 @@ public class MyClassVisitor extends ClassVisitor {
 
         Expression expression;
         if (value != null) {
-            expression = ExpressionFactory.from(runtime, localTypeMap, value);
+            expression = localTypeMap.constantValueExpression(value);
             if (expression.isEmpty()) {
                 LOGGER.warn("Ignoring unparsed field initializer of type {}, for field {}", value.getClass(), fieldInfo);
             }
@@ -314,10 +316,19 @@ public class MyClassVisitor extends ClassVisitor {
                 methodInspectionBuilder.addExceptionType(typeInfo.asSimpleParameterizedType());
             }
         }
+        if ((access & Opcodes.ACC_ABSTRACT) != 0 && !isPublicMethodOfObject(name, descriptor)) {
+            abstractMethodsNotFromObject++;
+        }
         return new MyMethodVisitor(runtime, typeParameterContext, localTypeMap, currentType, methodInfo,
                 r.parameterTypes(), lastParameterIsVarargs);
     }
 
+    private static boolean isPublicMethodOfObject(String name, String descriptor) {
+        return "equals".equals(name) && "(Ljava/lang/Object;)Z".equals(descriptor)
+               || "hashCode".equals(name) && "()I".equals(descriptor)
+               || "toString".equals(name) && "()Ljava/lang/String;".equals(descriptor);
+    }
+
     private MethodInfo.MethodType extractMethodType(int access) {
         boolean isStatic = (access & Opcodes.ACC_STATIC) != 0;
         if (isStatic) {
@@ -408,7 +419,7 @@ public class MyClassVisitor extends ClassVisitor {
                 if (currentTypeBuilder == null)
                     throw new UnsupportedOperationException("? was expecting a type inspection builder");
 
-                if (currentType.isAbstract()) {
+                if (currentType.isAbstract() && haveAnnotatedAbstractMethods()) {
                     new GetSetUtil(runtime).createSyntheticFields(currentType);
                 }
                 currentTypeBuilder.setSingleAbstractMethod(functionalInterface());
@@ -421,8 +432,26 @@ public class MyClassVisitor extends ClassVisitor {
         }
     }
 
+    /*
+    GetSetUtil only acts on abstract methods annotated with @GetSet, @Modified, ...
+    The vast majority of abstract types in the JDK have no annotations on their abstract methods.
+     */
+    private boolean haveAnnotatedAbstractMethods() {
+        return currentType.methods().stream().anyMatch(m -> m.isAbstract() && !m.annotations().isEmpty());
+    }
+
+    /*
+    Avoid the computation, which walks the type hierarchy, when the answer is already known:
+    two or more abstract methods of its own (bridge methods are synthetic, and have been skipped) cannot be
+    reduced to a single one by super-interfaces; without abstract methods and without super-interfaces
+    (a marker interface) there is nothing to find.
+     */
     private MethodInfo functionalInterface() {
         if (currentType.typeNature().isInterface()) {
+            if (abstractMethodsNotFromObject > 1
+                || abstractMethodsNotFromObject == 0 && !currentTypeHasInterfaces) {
+                return null;
+            }
             return runtime.computeMethodOverrides().computeFunctionalInterface(currentType);
         }
         return null;
@@ -0,0 +1,228 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.e2immu.bytecode.java.asm;
+
+
+import org.e2immu.language.cst.api.element.CompilationUnit;
+import org.e2immu.language.cst.api.expression.Expression;
+import org.e2immu.language.cst.api.info.FieldInfo;
+import org.e2immu.language.cst.api.info.MethodInfo;
+import org.e2immu.language.cst.api.info.TypeInfo;
+import org.e2immu.language.cst.api.type.NamedType;
+import org.e2immu.language.inspection.api.parser.TypeContext;
+import org.e2immu.language.inspection.impl.parser.SourceTypeMapImpl;
+import org.e2immu.language.inspection.impl.parser.TypeContextImpl;
+import org.e2immu.language.inspection.resource.CompiledTypesManagerImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestByteCodeInspector extends CommonJmodBaseTests {
+
+    @Test
+    public void testSharedConstantValues() {
+        TypeInfo typeInfo = compiledTypesManager.getOrLoad(Character.class);
+        FieldInfo minRadix = typeInfo.getFieldByName("MIN_RADIX", true);
+        assertEquals("2", minRadix.initializer().toString());
+        // a byte constant, but stored as an Integer in the class file
+        FieldInfo lowercaseLetter = typeInfo.getFieldByName("LOWERCASE_LETTER", true);
+        assertSame(minRadix.initializer(), lowercaseLetter.initializer());
+    }
+
+    @Test
+    public void testConstantValuesNotShared() {
+        ByteCodeInspectorImpl inspector = new ByteCodeInspectorImpl(runtime, compiledTypesManager, false, false);
+        assertSame(inspector.constantValueExpression(2), inspector.constantValueExpression(2));
+        assertSame(inspector.constantValueExpression("abc"), inspector.constantValueExpression("abc"));
+        // large numbers and long strings are created anew each time
+        assertNotSame(inspector.constantValueExpression(1_000_000), inspector.constantValueExpression(1_000_000));
+        assertNotSame(inspector.constantValueExpression(3.5), inspector.constantValueExpression(3.5));
+        String longString = "a string constant that is too long to be shared";
+        Expression e = inspector.constantValueExpression(longString);
+        assertNotSame(e, inspector.constantValueExpression(longString));
+        assertEquals(e.toString(), inspector.constantValueExpression(longString).toString());
+    }
+
+    @Test
+    public void testSingleAbstractMethod() {
+        TypeInfo function = compiledTypesManager.getOrLoad(Function.class);
+        MethodInfo apply = function.singleAbstractMethod();
+        assertNotNull(apply);
+        assertEquals("apply", apply.name());
+
+        // equals(Object) is abstract in Comparator, but does not count
+        TypeInfo comparator = compiledTypesManager.getOrLoad(Comparator.class);
+        assertEquals("compare", comparator.singleAbstractMethod().name());
+
+        assertNull(compiledTypesManager.getOrLoad(Collection.class).singleAbstractMethod());
+        assertNull(compiledTypesManager.getOrLoad(Serializable.class).singleAbstractMethod());
+    }
+
+    @Test
+    public void testLibraryTypeCache() {
+        CompilationUnit cu = runtime.newCompilationUnitBuilder().setPackageName("a.b").build();
+        TypeInfo a = runtime.newTypeInfo(cu, "A");
+        TypeInfo b = runtime.newTypeInfo(cu, "B");
+        TypeInfo c = runtime.newTypeInfo(cu, "C");
+        LibraryTypeCache cache = new LibraryTypeCache(2);
+        cache.put("a.b.A", a);
+        cache.put("a.b.B", b);
+        cache.put("a.b.C", c);
+        assertEquals(2, cache.retained());
+        // A has been released from the LRU map, but is still reachable
+        assertSame(a, cache.get("a.b.A"));
+        assertEquals(2, cache.retained());
+        assertSame(c, cache.get("a.b.C"));
+        assertNull(cache.get("a.b.D"));
+        assertEquals(0, cache.reclaimed());
+    }
+
+    @Test
+    public void testReclaimLibraryType() {
+        CompiledTypesManagerImpl mgr = new CompiledTypesManagerImpl(classPath);
+        ByteCodeInspectorImpl inspector = new ByteCodeInspectorImpl(runtime, mgr, false, false, 2);
+        mgr.setByteCodeInspector(inspector);
+        String fqn = "java.util.zip.Adler32";
+        TypeInfo original = inspector.getOrCreate(fqn, LocalTypeMap.LoadMode.NOW);
+        assertNotNull(original);
+        // push Adler32 out of the LRU map; none of these types refers to it
+        for (String other : List.of("java.util.zip.CRC32", "java.util.zip.CRC32C", "java.util.zip.Checksum")) {
+            assertNotNull(inspector.getOrCreate(other, LocalTypeMap.LoadMode.NOW));
+        }
+        // as if the garbage collector had run; the original would otherwise stay reachable through this test
+        inspector.libraryTypeCache().clearReleased();
+
+        TypeInfo reloaded = inspector.getOrCreate(fqn, LocalTypeMap.LoadMode.NOW);
+        assertNotSame(original, reloaded);
+        assertEquals(fqn, reloaded.fullyQualifiedName());
+        assertFalse(reloaded.methods().isEmpty());
+        assertSame(reloaded, inspector.getOrCreate(fqn, LocalTypeMap.LoadMode.NOW));
+        assertTrue(inspector.libraryTypeCache().reclaimed() > 0);
+    }
+
+    /*
+    when the cache is bounded, the types are not added to the CompiledTypesManager; name resolution must still
+    find them, also after they have been reclaimed
+     */
+    @Test
+    public void testBoundedLibraryTypesInTypeContext() {
+        CompiledTypesManagerImpl mgr = new CompiledTypesManagerImpl(classPath);
+        ByteCodeInspectorImpl inspector = new ByteCodeInspectorImpl(runtime, mgr, false, false, 2);
+        mgr.setByteCodeInspector(inspector);
+        TypeContext typeContext = new TypeContextImpl(runtime, mgr, new SourceTypeMapImpl(), false);
+        List<String> fqns = List.of("java.util.zip.Adler32", "java.util.zip.CRC32", "java.util.zip.CRC32C",
+                "java.util.zip.Checksum");
+        for (String fqn : fqns) {
+            assertEquals(fqn, resolve(typeContext, fqn).fullyQualifiedName());
+        }
+        inspector.libraryTypeCache().clearReleased();
+        for (String fqn : fqns) {
+            TypeInfo typeInfo = resolve(typeContext, fqn);
+            assertEquals(fqn, typeInfo.fullyQualifiedName());
+            assertFalse(typeInfo.methods().isEmpty());
+        }
+    }
+
+    private static TypeInfo resolve(TypeContext typeContext, String fqn) {
+        List<? extends NamedType> nts = typeContext.getWithQualification(fqn, true);
+        assertNotNull(nts, fqn);
+        return (TypeInfo) nts.getLast();
+    }
+
+    @Test
+    public void testAsyncTypeLoader() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            AsyncTypeLoader loader = new AsyncTypeLoader(byteCodeInspector, executor);
+            CompletableFuture<TypeInfo> f1 = loader.load("java.util.ArrayDeque");
+            CompletableFuture<List<TypeInfo>> f2 = loader.loadAll(List.of("java.util.TreeMap", "java.util.ArrayDeque"));
+            TypeInfo arrayDeque = f1.join();
+            assertEquals("java.util.ArrayDeque", arrayDeque.fullyQualifiedName());
+            List<TypeInfo> list = f2.join();
+            assertEquals("java.util.TreeMap", list.get(0).fullyQualifiedName());
+            assertSame(arrayDeque, list.get(1));
+            assertFalse(arrayDeque.methods().isEmpty());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testAsyncTypeLoaderWithVirtualThreads() {
+        try (AsyncTypeLoader loader = AsyncTypeLoader.withVirtualThreads(byteCodeInspector)) {
+            TypeInfo treeSet = loader.load("java.util.TreeSet").join();
+            assertEquals("java.util.TreeSet", treeSet.fullyQualifiedName());
+            assertNull(loader.load("java.util.DoesNotExist").join());
+        }
+    }
+
+    @Test
+    public void testAsyncLoadsOverlapDirectLoads() {
+        CompiledTypesManagerImpl mgr = new CompiledTypesManagerImpl(classPath);
+        ByteCodeInspectorImpl inspector = new ByteCodeInspectorImpl(runtime, mgr, false, false);
+        mgr.setByteCodeInspector(inspector);
+        List<String> fqns = List.of("java.util.TreeMap", "java.util.HashMap", "java.util.ArrayDeque",
+                "java.util.LinkedList", "java.util.concurrent.ConcurrentHashMap", "java.util.concurrent.ForkJoinPool");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            AsyncTypeLoader loader = new AsyncTypeLoader(inspector, executor);
+            CompletableFuture<List<TypeInfo>> async = loader.loadAll(fqns);
+            // meanwhile, the same types are requested directly, in the opposite order
+            List<TypeInfo> direct = fqns.reversed().stream()
+                    .map(fqn -> inspector.getOrCreate(fqn, LocalTypeMap.LoadMode.NOW))
+                    .toList().reversed();
+            List<TypeInfo> fromAsync = async.join();
+            for (int i = 0; i < fqns.size(); i++) {
+                assertSame(direct.get(i), fromAsync.get(i));
+                assertEquals(fqns.get(i), direct.get(i).fullyQualifiedName());
+                assertFalse(direct.get(i).methods().isEmpty());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testLoadTrace() {
+        // a new inspector, so that the parent class has certainly not been loaded by another test
+        CompiledTypesManagerImpl mgr = new CompiledTypesManagerImpl(classPath);
+        ByteCodeInspectorImpl inspector = new ByteCodeInspectorImpl(runtime, mgr, false, false);
+        mgr.setByteCodeInspector(inspector);
+        LoadTrace loadTrace = new LoadTrace();
+        inspector.setLoadTrace(loadTrace);
+        TypeInfo typeInfo = inspector.getOrCreate("java.util.concurrent.ConcurrentSkipListSet",
+                LocalTypeMap.LoadMode.NOW);
+        assertNotNull(typeInfo);
+
+        List<LoadTrace.Event> chain = loadTrace.chain("java.util.concurrent.ConcurrentSkipListSet");
+        assertEquals(1, chain.size());
+        assertNull(chain.getFirst().cause());
+        // the parent class is loaded directly, while loading the set
+        List<LoadTrace.Event> parentChain = loadTrace.chain("java.util.AbstractSet");
+        assertEquals(2, parentChain.size());
+        assertEquals("java.util.concurrent.ConcurrentSkipListSet", parentChain.getFirst().cause());
+        assertTrue(parentChain.getFirst().site().contains("MyClassVisitor"));
+    }
+}
@@ -104,6 +104,18 @@ public abstract class CommonParse {
                 endNodeIncl.getEndLine(), endNodeIncl.getEndColumn());
     }
 
+    /*
+    The index of a new anonymous type, lambda or local type in its enclosing type: either the next value of
+    the enclosing type's counter, or, see Parsers, the offset of the node in the source, which is unique in its
+    compilation unit and does not depend on the order in which bodies are parsed.
+     */
+    protected int anonymousTypeIndex(TypeInfo enclosingType, Node node) {
+        if (parsers.anonymousTypeIndexFromPosition()) {
+            return node.getBeginOffset();
+        }
+        return enclosingType.builder().getAndIncrementAnonymousTypes();
+    }
+
     // meant for detailed sources
     public Source source(Node node, int start, int end) {
         Node s = node.get(start);
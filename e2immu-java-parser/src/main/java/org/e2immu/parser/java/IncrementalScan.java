@@ -0,0 +1,181 @@
+package org.e2immu.parser.java;
+
+import org.e2immu.language.cst.api.element.FingerPrint;
+import org.e2immu.language.cst.api.info.TypeInfo;
+import org.e2immu.language.inspection.api.resource.MD5FingerPrint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.*;
+
+/*
+Incremental first round, on top of ParallelScan. The caller keeps the entries of the previous run, and passes them
+in together with the inputs of the current run. Each input is then
+
+- changed: new, or with a fingerprint different from the previous one (no fingerprint counts as a change).
+  It is scanned, and must be parsed.
+- affected: same fingerprint, but it mentions the simple name of a type that is defined, or was defined, in a changed
+  or removed compilation unit, or in another affected one. Its TypeInfo objects may refer to replaced ones,
+  so it is scanned and must be parsed as well.
+- reused: the ScanResult of the previous run is kept, with TypeInfo objects that have been fully parsed and
+  resolved in that run. It must not be parsed again.
+
+Mentions are found by comparing identifier sets: all Java identifiers in the source text, including comments and
+string literals. This over-approximates the dependencies, but it does not miss any: a reference to a source type
+either names it, or goes through a type that names it, which is then affected itself. Identifier sets are computed
+when a file is scanned, and kept in its entry, so that reused files are not read at all.
+ */
+public class IncrementalScan {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalScan.class);
+
+    private final ParallelScan parallelScan;
+
+    public record Entry(FingerPrint fingerPrint, ScanCompilationUnit.ScanResult scanResult, Set<String> identifiers) {
+    }
+
+    public record Report(List<URI> reused, List<URI> changed, List<URI> affected, List<URI> removed) {
+        @Override
+        public String toString() {
+            return "reused " + reused.size() + ", changed " + changed.size() + ", affected " + affected.size()
+                   + ", removed " + removed.size();
+        }
+    }
+
+    /*
+    scanResults and mustParse have one element per input, in the order of the inputs.
+    entries is to be passed to the next run.
+     */
+    public record Result(Map<String, TypeInfo> sourceTypes,
+                         List<ScanCompilationUnit.ScanResult> scanResults,
+                         List<Boolean> mustParse,
+                         Map<URI, Entry> entries,
+                         Report report) {
+    }
+
+    public IncrementalScan(ParallelScan parallelScan) {
+        this.parallelScan = parallelScan;
+    }
+
+    public Result scan(List<ParallelScan.Input> inputs, Map<URI, Entry> previous, boolean addDetailedSources) {
+        int n = inputs.size();
+        Set<URI> uris = new HashSet<>();
+        List<Integer> changed = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            ParallelScan.Input input = inputs.get(i);
+            uris.add(input.uri());
+            Entry entry = previous.get(input.uri());
+            if (entry == null || input.fingerPrint() == null || input.fingerPrint() == MD5FingerPrint.NO_FINGERPRINT
+                || !Objects.equals(entry.fingerPrint, input.fingerPrint())) {
+                changed.add(i);
+            }
+        }
+        List<URI> removed = previous.keySet().stream().filter(uri -> !uris.contains(uri)).sorted().toList();
+
+        ScanCompilationUnit.ScanResult[] scanResults = new ScanCompilationUnit.ScanResult[n];
+        Entry[] entries = new Entry[n];
+        scan(inputs, changed, addDetailedSources, scanResults, entries);
+
+        // names of the types that have been replaced, removed or added
+        Set<String> changedNames = new HashSet<>();
+        for (URI uri : removed) addSimpleNames(previous.get(uri).scanResult, changedNames);
+        for (int i : changed) {
+            addSimpleNames(scanResults[i], changedNames);
+            Entry entry = previous.get(inputs.get(i).uri());
+            if (entry != null) addSimpleNames(entry.scanResult, changedNames);
+        }
+
+        boolean[] mustParse = new boolean[n];
+        for (int i : changed) mustParse[i] = true;
+        List<Integer> affected = new ArrayList<>();
+        boolean progress = true;
+        while (progress) {
+            progress = false;
+            for (int i = 0; i < n; i++) {
+                if (!mustParse[i]) {
+                    Entry entry = previous.get(inputs.get(i).uri());
+                    if (!Collections.disjoint(entry.identifiers, changedNames)) {
+                        mustParse[i] = true;
+                        affected.add(i);
+                        addSimpleNames(entry.scanResult, changedNames);
+                        progress = true;
+                    }
+                }
+            }
+        }
+        Collections.sort(affected);
+        scan(inputs, affected, addDetailedSources, scanResults, entries);
+
+        List<URI> reused = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (!mustParse[i]) {
+                entries[i] = previous.get(inputs.get(i).uri());
+                scanResults[i] = entries[i].scanResult;
+                reused.add(inputs.get(i).uri());
+            }
+        }
+
+        Map<String, TypeInfo> sourceTypes = new HashMap<>();
+        Map<URI, Entry> newEntries = new HashMap<>();
+        List<Boolean> mustParseList = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            sourceTypes.putAll(scanResults[i].sourceTypes());
+            // a compilation unit that could not be scanned has no entry, so that it is scanned again next time
+            if (scanResults[i].compilationUnit() != null) newEntries.put(inputs.get(i).uri(), entries[i]);
+            mustParseList.add(mustParse[i]);
+        }
+        Report report = new Report(List.copyOf(reused), changed.stream().map(i -> inputs.get(i).uri()).toList(),
+                affected.stream().map(i -> inputs.get(i).uri()).toList(), removed);
+        LOGGER.info("Incremental scan: {}", report);
+        return new Result(Map.copyOf(sourceTypes), Arrays.asList(scanResults), List.copyOf(mustParseList),
+                Map.copyOf(newEntries), report);
+    }
+
+    private void scan(List<ParallelScan.Input> inputs,
+                      List<Integer> indices,
+                      boolean addDetailedSources,
+                      ScanCompilationUnit.ScanResult[] scanResults,
+                      Entry[] entries) {
+        if (indices.isEmpty()) return;
+        // each task writes the identifiers of its own input, when it reads the content
+        List<Set<String>> identifiers = new ArrayList<>(Collections.nCopies(indices.size(), Set.of()));
+        List<ParallelScan.Input> toScan = new ArrayList<>(indices.size());
+        for (int k = 0; k < indices.size(); k++) {
+            ParallelScan.Input input = inputs.get(indices.get(k));
+            int index = k;
+            toScan.add(new ParallelScan.Input(input.uri(), input.sourceSet(), input.fingerPrint(), () -> {
+                CharSequence content = input.content().get();
+                identifiers.set(index, identifiers(content));
+                return content;
+            }));
+        }
+        ParallelScan.Result result = parallelScan.scan(toScan, addDetailedSources);
+        for (int k = 0; k < indices.size(); k++) {
+            int i = indices.get(k);
+            scanResults[i] = result.scanResults().get(k);
+            entries[i] = new Entry(inputs.get(i).fingerPrint(), scanResults[i], identifiers.get(k));
+        }
+    }
+
+    private static void addSimpleNames(ScanCompilationUnit.ScanResult scanResult, Set<String> names) {
+        scanResult.sourceTypes().values().forEach(typeInfo -> names.add(typeInfo.simpleName()));
+    }
+
+    static Set<String> identifiers(CharSequence content) {
+        Set<String> set = new HashSet<>();
+        int length = content.length();
+        int i = 0;
+        while (i < length) {
+            if (Character.isJavaIdentifierStart(content.charAt(i))) {
+                int start = i;
+                do {
+                    i++;
+                } while (i < length && Character.isJavaIdentifierPart(content.charAt(i)));
+                set.add(content.subSequence(start, i).toString());
+            } else {
+                i++;
+            }
+        }
+        return Set.copyOf(set);
+    }
+}
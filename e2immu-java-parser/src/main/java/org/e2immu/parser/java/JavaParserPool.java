@@ -0,0 +1,57 @@
+package org.e2immu.parser.java;
+
+import org.parsers.java.JavaParser;
+import org.parsers.java.SymbolTable;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/*
+Thread-local pool of JavaParser instances (each with its own JavaLexer), for runs that parse many small files.
+A released parser is rebound to the next input, keeping its warmed-up buffers.
+
+The tokens and nodes of a parse refer to the lexer for their text: release a parser only when the CST it produced
+is no longer needed. The configurator is applied once, when a parser is created; settings survive rebinding.
+The symbol table, on the other hand, is that of the run acquiring the parser.
+ */
+public class JavaParserPool {
+    private static final int MAX_POOLED_PER_THREAD = 4;
+
+    private final Consumer<JavaParser> configurator;
+    private final ThreadLocal<ArrayDeque<JavaParser>> pool = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public JavaParserPool() {
+        this(p -> {
+        });
+    }
+
+    public JavaParserPool(Consumer<JavaParser> configurator) {
+        this.configurator = configurator;
+    }
+
+    public JavaParser acquire(String inputSource, CharSequence content) {
+        return acquire(inputSource, content, null);
+    }
+
+    public JavaParser acquire(String inputSource, CharSequence content, SymbolTable symbolTable) {
+        JavaParser parser = pool.get().pollFirst();
+        if (parser == null) {
+            parser = new JavaParser(inputSource, content);
+            configurator.accept(parser);
+        } else {
+            parser.rebind(inputSource, content);
+        }
+        parser.setSymbolTable(symbolTable);
+        return parser;
+    }
+
+    public void release(JavaParser parser) {
+        ArrayDeque<JavaParser> deque = pool.get();
+        if (deque.size() < MAX_POOLED_PER_THREAD) {
+            // drop the references to the previous input and tree
+            parser.rebind("input", "");
+            parser.setSymbolTable(null);
+            deque.addFirst(parser);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.e2immu.parser.java;
+
+import org.e2immu.language.inspection.api.parser.Summary;
+import org.parsers.java.JavaParser;
+import org.parsers.java.ast.CompilationUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/*
+Parallel CST parse for the second round, after ParallelScan (or ScanCompilationUnit) has filled the type map:
+the source of each compilation unit is lexed and parsed into a CST concurrently, one file per task, on a fork-join
+pool. Nothing else happens in the tasks.
+
+Turning the CSTs into types is left to the caller, with ParseCompilationUnit, on a single thread. It goes through
+the shared type context, compiled types manager, resolver and summary of the root context, which are not made for
+concurrent use, and it reads the hierarchy of types of other compilation units.
+
+Each task keeps its own parse exception. When all tasks are done, the exceptions are added to the summary in the
+order of the inputs, as in ParallelScan. The CSTs are not released here: the resolver parses the method bodies
+later on.
+ */
+public class ParallelParse {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelParse.class);
+
+    private final Summary summary;
+    private final ForkJoinPool forkJoinPool;
+    private final Consumer<JavaParser> configurator;
+
+    public record Input(org.e2immu.language.cst.api.element.CompilationUnit compilationUnit,
+                        ParallelScan.Content content) {
+    }
+
+    private record FileParse(CompilationUnit cu, Summary.ParseException parseException) {
+    }
+
+    public ParallelParse(Summary summary) {
+        this(summary, ForkJoinPool.commonPool());
+    }
+
+    public ParallelParse(Summary summary, ForkJoinPool forkJoinPool) {
+        this(summary, forkJoinPool, p -> {
+        });
+    }
+
+    /*
+    the configurator is applied to the parser of each compilation unit, before it parses; it can, e.g., switch on
+    JavaParser.setSkipBlockContents, so that method bodies are only parsed when the resolver gets to them.
+     */
+    public ParallelParse(Summary summary, ForkJoinPool forkJoinPool, Consumer<JavaParser> configurator) {
+        this.summary = summary;
+        this.forkJoinPool = forkJoinPool;
+        this.configurator = configurator;
+    }
+
+    /*
+    one CST per input, in the order of the inputs; null when the input could not be read or parsed
+     */
+    public List<CompilationUnit> parse(List<Input> inputs) {
+        List<FileParse> fileParses = forkJoinPool.submit(() -> inputs.parallelStream().map(this::parse).toList())
+                .join();
+        for (FileParse fileParse : fileParses) {
+            if (fileParse.parseException != null) summary.addParseException(fileParse.parseException);
+        }
+        return fileParses.stream().map(FileParse::cu).toList();
+    }
+
+    private FileParse parse(Input input) {
+        org.e2immu.language.cst.api.element.CompilationUnit compilationUnit = input.compilationUnit;
+        try {
+            JavaParser parser = new JavaParser(compilationUnit.uri().toString(), input.content.get());
+            configurator.accept(parser);
+            return new FileParse(parser.CompilationUnit(), null);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Caught exception parsing compilation unit {}", compilationUnit.uri());
+            return new FileParse(null, new Summary.ParseException(compilationUnit, compilationUnit,
+                    "Caught exception parsing compilation unit", e));
+        }
+    }
+}
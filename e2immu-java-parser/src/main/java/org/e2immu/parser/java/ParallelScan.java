@@ -0,0 +1,115 @@
+package org.e2immu.parser.java;
+
+import org.e2immu.language.cst.api.element.FingerPrint;
+import org.e2immu.language.cst.api.element.SourceSet;
+import org.e2immu.language.cst.api.info.TypeInfo;
+import org.e2immu.language.cst.api.runtime.Runtime;
+import org.e2immu.language.inspection.api.parser.Summary;
+import org.parsers.java.JavaParser;
+import org.parsers.java.MappedSource;
+import org.parsers.java.SymbolTable;
+import org.parsers.java.ast.CompilationUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/*
+First round for many compilation units at once: lexing, parsing and ScanCompilationUnit.scan run concurrently,
+one file per task, on a fork-join pool.
+
+Each task collects its own parse exceptions. When all tasks are done, the exceptions are added to the summary,
+and the type maps are merged, in the order of the inputs: the outcome is that of scanning the files one after
+the other, whatever the interleaving of the tasks. A fail-fast summary throws at the first error in that order.
+
+The lexers of one scan share a symbol table, so that each distinct identifier is materialized once per scan.
+ */
+public class ParallelScan {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelScan.class);
+
+    private final Summary summary;
+    private final ScanCompilationUnit scanCompilationUnit;
+    private final JavaParserPool parserPool;
+    private final ForkJoinPool forkJoinPool;
+
+    @FunctionalInterface
+    public interface Content {
+        CharSequence get() throws IOException;
+
+        /*
+        Memory-maps the file rather than reading it onto the heap, see MappedSource; a null charset detects UTF-8.
+        The file must not change while the tree of its compilation unit is in use.
+         */
+        static Content mapped(Path path, Charset charset) {
+            return () -> MappedSource.open(path, charset);
+        }
+    }
+
+    public record Input(URI uri, SourceSet sourceSet, FingerPrint fingerPrint, Content content) {
+    }
+
+    /*
+    scanResults has one element per input, in the order of the inputs
+     */
+    public record Result(Map<String, TypeInfo> sourceTypes, List<ScanCompilationUnit.ScanResult> scanResults) {
+    }
+
+    private record FileScan(ScanCompilationUnit.ScanResult scanResult, List<Summary.ParseException> parseExceptions) {
+    }
+
+    public ParallelScan(Summary summary, Runtime runtime) {
+        this(summary, runtime, new JavaParserPool(), ForkJoinPool.commonPool());
+    }
+
+    public ParallelScan(Summary summary, Runtime runtime, JavaParserPool parserPool, ForkJoinPool forkJoinPool) {
+        this.summary = summary;
+        // ScanCompilationUnit keeps no state between scans; one instance serves all tasks
+        this.scanCompilationUnit = new ScanCompilationUnit(summary, runtime);
+        this.parserPool = parserPool;
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    public Result scan(List<Input> inputs, boolean addDetailedSources) {
+        SymbolTable symbolTable = new SymbolTable();
+        List<FileScan> fileScans = forkJoinPool.submit(() -> IntStream.range(0, inputs.size()).parallel()
+                .mapToObj(i -> scan(inputs.get(i), addDetailedSources, symbolTable))
+                .toList()).join();
+        Map<String, TypeInfo> sourceTypes = new HashMap<>();
+        List<ScanCompilationUnit.ScanResult> scanResults = new ArrayList<>(fileScans.size());
+        for (FileScan fileScan : fileScans) {
+            fileScan.parseExceptions.forEach(summary::addParseException);
+            sourceTypes.putAll(fileScan.scanResult.sourceTypes());
+            scanResults.add(fileScan.scanResult);
+        }
+        return new Result(Map.copyOf(sourceTypes), List.copyOf(scanResults));
+    }
+
+    private FileScan scan(Input input, boolean addDetailedSources, SymbolTable symbolTable) {
+        List<Summary.ParseException> parseExceptions = new ArrayList<>();
+        JavaParser parser = null;
+        try {
+            parser = parserPool.acquire(input.uri.toString(), input.content.get(), symbolTable);
+            CompilationUnit cu = parser.CompilationUnit();
+            ScanCompilationUnit.ScanResult scanResult = scanCompilationUnit.scan(input.uri, input.sourceSet,
+                    input.fingerPrint, cu, addDetailedSources, parseExceptions::add);
+            return new FileScan(scanResult, parseExceptions);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Caught exception parsing compilation unit {}", input.uri);
+            parseExceptions.add(new Summary.ParseException(input.uri, input.uri,
+                    "Caught exception parsing compilation unit", e));
+            return new FileScan(new ScanCompilationUnit.ScanResult(Map.of(), null), parseExceptions);
+        } finally {
+            // a parse exception may refer to the parser's tree; the pool would rebind it to new input
+            if (parser != null && parseExceptions.isEmpty()) parserPool.release(parser);
+        }
+    }
+}
@@ -6,7 +6,7 @@ import org.e2immu.language.cst.api.runtime.Runtime;
 import org.e2immu.language.cst.api.statement.Block;
 import org.e2immu.language.cst.api.statement.LocalTypeDeclaration;
 import org.e2immu.language.inspection.api.parser.Context;
-import org.e2immu.util.internal.util.StringUtil;
+import org.parsers.java.JavaParser;
 import org.parsers.java.Node;
 import org.parsers.java.ast.*;
 
@@ -24,23 +24,26 @@ public class ParseBlock extends CommonParse {
 
     public Block parse(Context context, String index, String label, CodeBlock codeBlock,
                        boolean asSeparateStatement, int startCount) {
+        if (codeBlock.isSkipped()) {
+            codeBlock = JavaParser.parseSkippedBlock(codeBlock);
+        }
         Source source = source(index, codeBlock);
         List<Comment> comments = comments(codeBlock);
         Block.Builder builder = runtime.newBlockBuilder();
         int count = startCount;
         int n = codeBlock.size() - 2; // delimiters at front and back: '{', '}'
         String dot = asSeparateStatement ? ".0." : ".";
+        StatementIndex statementIndex = new StatementIndex(index.isEmpty() ? "" : index + dot, n);
         for (Node child : codeBlock) {
-            String sIndex = (index.isEmpty() ? "" : index + dot) + StringUtil.pad(count, n);
             if (child instanceof Statement s) {
                 org.e2immu.language.cst.api.statement.Statement statement = parsers.parseStatement()
-                        .parse(context, sIndex, s);
+                        .parse(context, statementIndex.index(count), s);
                 builder.addStatement(statement);
                 count++;
             } else if (child instanceof TypeDeclaration classDeclaration) {
                 // local class declaration
                 LocalTypeDeclaration lcd = new ParseLocalTypeDeclaration(runtime, parsers)
-                        .parse(context, sIndex, classDeclaration);
+                        .parse(context, statementIndex.index(count), classDeclaration);
                 builder.addStatement(lcd);
                 count++;
             } else if (!(child instanceof Delimiter)) {
@@ -81,6 +81,8 @@ public class ParseCompilationUnit extends CommonParse {
                 }
             }
         } // else: has been parsed elsewhere
+        // the tree stays reachable from the resolver, and from delayed types, but it will not grow anymore
+        cu.getTokenSource().trimTokenCache();
         return types;
     }
 
@@ -50,7 +50,7 @@ public class ParseConstructorCall extends CommonParse {
             if (typeInfo != null) {
                 // see TestConstructor,15 for an example
                 newContext = context.newTypeContext();
-                newContext.typeContext().addSubTypesOfHierarchyReturnAllDefined(typeInfo,
+                parsers.parseType().addSubTypesOfHierarchyReturnAllDefined(newContext, typeInfo,
                         TypeContext.SUBTYPE_HIERARCHY_ANONYMOUS);
             } else {
                 newContext = context; // type is Object... nothing to add
@@ -220,7 +220,7 @@ public class ParseConstructorCall extends CommonParse {
                                           Diamond diamond,
                                           List<ParameterizedType> methodTypeArguments) {
         TypeInfo anonymousType = runtime.newAnonymousType(context.enclosingType(),
-                context.enclosingType().builder().getAndIncrementAnonymousTypes());
+                anonymousTypeIndex(context.enclosingType(), body));
         TypeNature typeNature = runtime.typeNatureClass();
         TypeInfo.Builder builder = anonymousType.builder();
         builder.setSource(source)
@@ -246,7 +246,7 @@ public class ParseConstructorCall extends CommonParse {
         Context newContext = context.newAnonymousClassBody(anonymousType);
         // we must not only add the types of the enclosing type (this happens inside newAnonymousClassBody()), but
         // also those of the type we're extending:
-        newContext.typeContext().addSubTypesOfHierarchyReturnAllDefined(concreteReturnType.typeInfo(),
+        parsers.parseType().addSubTypesOfHierarchyReturnAllDefined(newContext, concreteReturnType.typeInfo(),
                 TypeContext.SUBTYPE_HIERARCHY_ANONYMOUS);
         parsers.parseTypeDeclaration().parseBody(newContext, body, typeNature, anonymousType, builder, null);
         newContext.resolver().resolve(false);
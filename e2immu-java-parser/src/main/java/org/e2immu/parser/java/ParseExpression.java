@@ -21,7 +21,6 @@ import org.e2immu.language.inspection.api.parser.ForwardType;
 import org.e2immu.language.inspection.api.parser.Summary;
 import org.e2immu.parser.java.util.EscapeSequence;
 import org.e2immu.parser.java.util.TextBlockParser;
-import org.e2immu.util.internal.util.StringUtil;
 import org.parsers.java.Node;
 import org.parsers.java.Token;
 import org.parsers.java.ast.*;
@@ -32,8 +31,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 import static org.parsers.java.Token.TokenType.*;
@@ -42,10 +43,53 @@ public class ParseExpression extends CommonParse {
     private static final Logger LOGGER = LoggerFactory.getLogger(ParseExpression.class);
     public static final String LENGTH = "length";
 
+    /*
+    Erasure results of method calls, constructor calls, lambdas and method references, valid while parsing one
+    top-level expression on this thread. Method resolution parses the arguments of a call in erasure mode before
+    parsing them for real, so nested calls are parsed in erasure mode again at every level of nesting. In erasure
+    mode, these four kinds of expression only use the forward type to know that it is an erasure; their result then
+    depends on the node, the context, the index, and whether comments are ignored.
+    Contexts are compared by identity, even though variables are added to them while a top-level expression is being
+    parsed: pattern variables, and the parameters and local variables of lambda and anonymous class bodies. The latter
+    two live in contexts that are created anew each time such a body is parsed, so their nodes get new keys. A node is
+    only parsed again in the same context when the call containing it is parsed again; all the variables it can see
+    are declared before it in the source, and have therefore been added already when it is parsed the first time.
+     */
+    private final ThreadLocal<ErasureMemo> erasureMemo = ThreadLocal.withInitial(ErasureMemo::new);
+    private final LongAdder erasureMemoHits = new LongAdder();
+    private boolean erasureMemoEnabled = true;
+
+    private static class ErasureMemo {
+        private final Map<ErasureKey, Expression> results = new HashMap<>();
+        private int depth;
+    }
+
+    private record ErasureKey(Node node, Context context, String index, boolean ignoreComments) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ErasureKey k && node == k.node && context == k.context && index.equals(k.index)
+                   && ignoreComments == k.ignoreComments;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * System.identityHashCode(node) + System.identityHashCode(context)) + index.hashCode();
+        }
+    }
+
     public ParseExpression(Runtime runtime, Parsers parsers) {
         super(runtime, parsers);
     }
 
+    // for testing; to be called before parsing starts
+    void setErasureMemo(boolean enabled) {
+        this.erasureMemoEnabled = enabled;
+    }
+
+    long erasureMemoHits() {
+        return erasureMemoHits.sum();
+    }
+
     public Expression parseIgnoreComments(Context context, String index, ForwardType forwardType, Node node) {
         return parse(context, index, forwardType, node, true);
     }
@@ -55,12 +99,29 @@ public class ParseExpression extends CommonParse {
     }
 
     public Expression parse(Context context, String index, ForwardType forwardType, Node node, boolean ignoreComments) {
+        ErasureMemo memo = erasureMemo.get();
+        memo.depth++;
         try {
+            if (erasureMemoEnabled && forwardType.erasure()
+                && (node instanceof MethodCall || node instanceof AllocationExpression
+                    || node instanceof LambdaExpression || node instanceof MethodReference)) {
+                ErasureKey key = new ErasureKey(node, context, index, ignoreComments);
+                Expression erasure = memo.results.get(key);
+                if (erasure == null) {
+                    erasure = internalParse(context, index, forwardType, node, ignoreComments);
+                    memo.results.put(key, erasure);
+                } else {
+                    erasureMemoHits.increment();
+                }
+                return erasure;
+            }
             return internalParse(context, index, forwardType, node, ignoreComments);
         } catch (Throwable t) {
             LOGGER.error("Caught exception parsing expression at line {}, pos {}. Current info {}", node.getBeginLine(),
                     node.getBeginColumn(), context.info());
             throw t;
+        } finally {
+            if (--memo.depth == 0) memo.results.clear();
         }
     }
 
@@ -217,6 +278,7 @@ public class ParseExpression extends CommonParse {
             selectorTypeInfo.fields().stream().filter(Info::isSynthetic)
                     .forEach(f -> newContext.variableContext().add(runtime.newFieldReference(f)));
         }
+        StatementIndex entryIndex = new StatementIndex(index + ".", n);
         int count = 0;
         ParameterizedType commonType = null;
         for (Node child : node) {
@@ -229,18 +291,18 @@ public class ParseExpression extends CommonParse {
                 Node ncs1 = ncs.get(1);
                 switch (ncs1) {
                     case CodeBlock cb -> {
-                        String newIndex = index + "." + StringUtil.pad(count, n);
+                        String newIndex = entryIndex.index(count);
                         entryBuilder.setStatement(parsers.parseBlock().parse(newContext, newIndex, null, cb));
                     }
                     case Statement statement -> {
                         // throw statement is allowed!
-                        String newIndex = index + "." + StringUtil.pad(count, n) + "0";
+                        String newIndex = entryIndex.index(count) + "0";
                         org.e2immu.language.cst.api.statement.Statement st = parsers.parseStatement()
                                 .parse(newContext, newIndex, statement);
                         entryBuilder.setStatement(st);
                     }
                     case org.parsers.java.ast.Expression expression -> {
-                        String newIndex = index + "." + StringUtil.pad(count, n) + "0";
+                        String newIndex = entryIndex.index(count) + "0";
                         Expression pe = parse(newContext, newIndex, forwardType, expression);
                         entryBuilder.setStatement(runtime.newExpressionAsStatementBuilder().setExpression(pe)
                                 .setSource(pe.source()).build());
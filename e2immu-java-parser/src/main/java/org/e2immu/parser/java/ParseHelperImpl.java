@@ -19,6 +19,7 @@ import org.e2immu.language.inspection.api.parser.Context;
 import org.e2immu.language.inspection.api.parser.ForwardType;
 import org.e2immu.language.inspection.api.parser.ParseHelper;
 import org.e2immu.language.inspection.api.parser.Summary;
+import org.parsers.java.JavaParser;
 import org.parsers.java.Node;
 import org.parsers.java.Token;
 import org.parsers.java.ast.*;
@@ -93,6 +94,10 @@ public class ParseHelperImpl extends CommonParse implements ParseHelper {
                                   Object unparsedEci,
                                   Object expression,
                                   List<Statement> recordAssignments) {
+        if (expression instanceof CodeBlock codeBlock && codeBlock.isSkipped()) {
+            // the parser skipped the body, see JavaParser.setSkipBlockContents
+            expression = JavaParser.parseSkippedBlock(codeBlock);
+        }
         int n = (recordAssignments == null ? 0 : recordAssignments.size())
                 + countTopLevelStatements(unparsedEci, expression);
         org.e2immu.language.cst.api.statement.ExplicitConstructorInvocation eci;
@@ -45,7 +45,7 @@ public class ParseLambdaExpression extends CommonParse {
 
         List<Lambda.OutputVariant> outputVariants = new ArrayList<>();
 
-        int typeIndex = context.enclosingType().builder().getAndIncrementAnonymousTypes();
+        int typeIndex = anonymousTypeIndex(context.enclosingType(), le);
         TypeInfo anonymousType = runtime.newAnonymousType(context.enclosingType(), typeIndex);
         assert source != null;
         anonymousType.builder()
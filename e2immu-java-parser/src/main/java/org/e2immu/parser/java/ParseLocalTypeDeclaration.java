@@ -18,7 +18,7 @@ public class ParseLocalTypeDeclaration extends CommonParse {
 
         TypeInfo typeInfo = parsers.parseTypeDeclaration().parseLocal(newContext, context.enclosingMethod(), classDeclaration);
         newContext.resolver().resolve(false);
-        context.typeContext().addToContext(typeInfo, TypeContext.CURRENT_TYPE_PRIORITY);
+        parsers.parseType().addToContext(context, typeInfo, TypeContext.CURRENT_TYPE_PRIORITY);
         return runtime.newLocalTypeDeclarationBuilder()
                 .setTypeInfo(typeInfo)
                 .setSource(source(index, classDeclaration))
@@ -16,7 +16,6 @@ import org.e2immu.language.cst.api.variable.LocalVariable;
 import org.e2immu.language.inspection.api.parser.Context;
 import org.e2immu.language.inspection.api.parser.ForwardType;
 import org.e2immu.language.inspection.api.parser.Summary;
-import org.e2immu.util.internal.util.StringUtil;
 import org.parsers.java.Node;
 import org.parsers.java.Token;
 import org.parsers.java.ast.*;
@@ -200,10 +199,10 @@ public class ParseStatement extends CommonParse {
             if (tryStatement.get(i) instanceof ResourcesInTryBlock r) {
                 int j = 1;
                 int rCount = 0;
-                int n = (r.size() - 1) / 2;
+                StatementIndex resourceIndex = new StatementIndex(index + "+", (r.size() - 1) / 2);
                 while (j < r.size() && !(r.get(j) instanceof Delimiter)) {
                     // resources
-                    String newIndex = index + "+" + StringUtil.pad(rCount, n);
+                    String newIndex = resourceIndex.index(rCount);
                     Node resourceNode = r.get(j);
                     org.e2immu.language.cst.api.statement.Statement resource;
                     if (resourceNode instanceof Statement) {
@@ -224,9 +223,8 @@ public class ParseStatement extends CommonParse {
                 }
                 i++;
             }
-            int n = countCatchBlocks(tryStatement) + 2;
-            String firstIndex = index + "." + StringUtil.pad(0, n);
-            Block block = parseBlockOrStatement(newContext, firstIndex, tryStatement.get(i));
+            StatementIndex blockIndex = new StatementIndex(index + ".", countCatchBlocks(tryStatement) + 2);
+            Block block = parseBlockOrStatement(newContext, blockIndex.index(0), tryStatement.get(i));
             i++;
             builder.setBlock(block).addComments(comments).setSource(source).setLabel(label).addAnnotations(annotations);
             int blockCount = 1;
@@ -294,7 +292,7 @@ public class ParseStatement extends CommonParse {
                 }
                 j++; // ) delimiter
                 if (catchBlock.get(j) instanceof CodeBlock cb) {
-                    String newIndex = index + "." + StringUtil.pad(blockCount, n);
+                    String newIndex = blockIndex.index(blockCount);
                     Block cbb = parsers.parseBlock().parse(catchContext, newIndex, null, cb);
                     blockCount++;
                     Source source1 = source(newIndex, catchBlock);
@@ -307,7 +305,7 @@ public class ParseStatement extends CommonParse {
             Block finallyBlock;
             if (i < tryStatement.size() && tryStatement.get(i) instanceof FinallyBlock fb) {
                 Context finallyContext = context.newVariableContext("finallyBlock");
-                String newIndex = index + "." + StringUtil.pad(blockCount, n);
+                String newIndex = blockIndex.index(blockCount);
                 finallyBlock = parseBlockOrStatement(finallyContext, newIndex, fb.get(1));
             } else {
                 finallyBlock = runtime.emptyBlock();
@@ -633,6 +631,7 @@ public class ParseStatement extends CommonParse {
             selectorTypeInfo.fields().stream().filter(Info::isSynthetic)
                     .forEach(f -> newContext.variableContext().add(runtime.newFieldReference(f)));
         }
+        StatementIndex entryIndex = new StatementIndex(index + ".", n);
         int count = 0;
         for (Node child : statement) {
             if (child instanceof NewCaseStatement ncs) {
@@ -642,10 +641,10 @@ public class ParseStatement extends CommonParse {
                     parseNewSwitchLabel(index, nsl, newContext, entryBuilder, selectorTypeFwd);
                 } else throw new Summary.ParseException(newContext, "Expect NewCaseStatement");
                 if (ncs.get(1) instanceof CodeBlock cb) {
-                    String newIndex = index + "." + StringUtil.pad(count, n);
+                    String newIndex = entryIndex.index(count);
                     entryBuilder.setStatement(parsers.parseBlock().parse(newContext, newIndex, null, cb));
                 } else if (ncs.get(1) instanceof Statement st) {
-                    String newIndex = index + "." + StringUtil.pad(count, n) + "0";
+                    String newIndex = entryIndex.index(count) + "0";
                     entryBuilder.setStatement(parse(newContext, newIndex, st));
                 } else throw new Summary.ParseException(newContext, "Expect statement");
                 count++;
@@ -678,6 +677,7 @@ public class ParseStatement extends CommonParse {
                     .forEach(f -> newContext.variableContext().add(runtime.newFieldReference(f)));
         }
 
+        StatementIndex statementIndex = new StatementIndex(index + ".0.", n);
         int pos = 0;
 
         for (int i = start + 5; i < statement.size(); i++) {
@@ -691,7 +691,7 @@ public class ParseStatement extends CommonParse {
                     } else {
                         assert Token.TokenType.CASE.equals(csl.getFirst().getType());
                         for (int k = 1; k < csl.size(); k += 2) {
-                            String newIndex = index + ".0." + StringUtil.pad(pos, n);
+                            String newIndex = statementIndex.index(pos);
 
                             Node node = csl.get(k);
                             SwitchStatementOldStyle.SwitchLabel sl;
@@ -724,7 +724,7 @@ public class ParseStatement extends CommonParse {
                 }
                 for (int j = 1; j < ccs.size(); j++) {
                     if (ccs.get(j) instanceof Statement s) {
-                        String newIndex = index + ".0." + StringUtil.pad(pos, n);
+                        String newIndex = statementIndex.index(pos);
                         org.e2immu.language.cst.api.statement.Statement st
                                 = parse(context, newIndex, s);
                         builder.addStatement(st);
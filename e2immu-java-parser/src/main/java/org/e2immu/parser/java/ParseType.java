@@ -1,6 +1,8 @@
 package org.e2immu.parser.java;
 
+import org.e2immu.language.cst.api.element.CompilationUnit;
 import org.e2immu.language.cst.api.element.DetailedSources;
+import org.e2immu.language.cst.api.element.ImportStatement;
 import org.e2immu.language.cst.api.element.Source;
 import org.e2immu.language.cst.api.info.TypeInfo;
 import org.e2immu.language.cst.api.runtime.Runtime;
@@ -9,20 +11,93 @@ import org.e2immu.language.cst.api.type.ParameterizedType;
 import org.e2immu.language.cst.api.type.Wildcard;
 import org.e2immu.language.inspection.api.parser.Context;
 import org.e2immu.language.inspection.api.parser.Summary;
+import org.e2immu.language.inspection.api.parser.TypeContext;
 import org.parsers.java.Node;
 import org.parsers.java.Token;
 import org.parsers.java.ast.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ParseType extends CommonParse {
 
+    /*
+    Memo of the names looked up in parseObjectType, per compilation unit, keyed by the type context (by identity) and
+    the (qualified) name. The same names, String, List, Map.Entry, are looked up over and over again in the same type
+    context, each time through all of its priority layers.
+
+    A name can be shadowed by a type parameter, a local type, or a (sub)type of the hierarchy that is added to a type
+    context, possibly to a parent of the type context used as key. Such additions go through the methods below, which
+    clear the memo of the compilation unit of the type context. Additions made by ParseCompilationUnit, to a new type
+    context in which nothing has been looked up yet, do not need to. Additions made while parsing one method body
+    only affect lookups in that method body, which happen on the same thread. Failed lookups are not memoized.
+    Type contexts without enclosing type do not have a memo. The memos of at most MAX_MEMOS compilation units are
+    kept; dropping them only costs lookups.
+     */
+    private static final int MAX_MEMOS = 64;
+    private static final int MAX_MEMO_SIZE = 4096;
+    private final Map<CompilationUnit, Map<NameKey, List<? extends NamedType>>> memos = new ConcurrentHashMap<>();
+
+    private record NameKey(TypeContext typeContext, String name) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof NameKey k && typeContext == k.typeContext && name.equals(k.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(typeContext) + name.hashCode();
+        }
+    }
+
     public ParseType(Runtime runtime) {
         super(runtime, null);
     }
 
+    public void addToContext(Context context, NamedType namedType, int priority) {
+        context.typeContext().addToContext(namedType, priority);
+        typeContextChanged(context);
+    }
+
+    public boolean addSubTypesOfHierarchyReturnAllDefined(Context context, TypeInfo typeInfo, int priority) {
+        boolean allDefined = context.typeContext().addSubTypesOfHierarchyReturnAllDefined(typeInfo, priority);
+        typeContextChanged(context);
+        return allDefined;
+    }
+
+    public boolean addToStaticImportMap(Context context, CompilationUnit compilationUnit,
+                                        ImportStatement importStatement) {
+        boolean added = context.typeContext().addToStaticImportMap(compilationUnit, importStatement);
+        memos.remove(compilationUnit);
+        return added;
+    }
+
+    private void typeContextChanged(Context context) {
+        TypeInfo enclosingType = context.enclosingType();
+        if (enclosingType != null) memos.remove(enclosingType.compilationUnit());
+    }
+
+    private List<? extends NamedType> getWithQualification(Context context, String name, boolean complain) {
+        TypeContext typeContext = context.typeContext();
+        TypeInfo enclosingType = context.enclosingType();
+        if (enclosingType == null) return typeContext.getWithQualification(name, complain);
+        Map<NameKey, List<? extends NamedType>> memo = memos.get(enclosingType.compilationUnit());
+        if (memo == null) {
+            if (memos.size() >= MAX_MEMOS) memos.clear();
+            memo = memos.computeIfAbsent(enclosingType.compilationUnit(), _ -> new ConcurrentHashMap<>());
+        }
+        NameKey key = new NameKey(typeContext, name);
+        List<? extends NamedType> nts = memo.get(key);
+        if (nts == null) {
+            nts = typeContext.getWithQualification(name, complain);
+            if (nts != null && memo.size() < MAX_MEMO_SIZE) memo.put(key, nts);
+        }
+        return nts;
+    }
+
     /*
     KeyWord
     Identifier (1 child, e.g. nodes is a ReturnType)
@@ -177,7 +252,7 @@ public class ParseType extends CommonParse {
         }
         String qualifiedName = sb.toString();
         if (qualifiedName.isBlank()) throw new Summary.ParseException(context, "Expected a qualified name");
-        List<? extends NamedType> nts = context.typeContext().getWithQualification(qualifiedName, complain);
+        List<? extends NamedType> nts = getWithQualification(context, qualifiedName, complain);
         if (nts == null) {
             if (complain) throw new Summary.ParseException(context, "Expected non-null");
             return null;
@@ -74,7 +74,7 @@ public class ParseTypeDeclaration extends CommonParse {
         try {
             return internalParse(context, Either.right(enclosingMethod.typeInfo()),
                     simpleName -> {
-                        int typeIndex = enclosingMethod.typeInfo().builder().getAndIncrementAnonymousTypes();
+                        int typeIndex = anonymousTypeIndex(enclosingMethod.typeInfo(), classDeclaration);
                         TypeInfo typeInfo = runtime.newTypeInfo(enclosingMethod, simpleName, typeIndex);
                         handleTypeModifiers(classDeclaration, typeInfo, context.isDetailedSources());
                         return typeInfo;
@@ -147,8 +147,8 @@ public class ParseTypeDeclaration extends CommonParse {
         builder.setEnclosingMethod(context.enclosingMethod());
 
         Context newContext = context.newSubType(typeInfo);
-        newContext.typeContext().addToContext(typeInfo, CURRENT_TYPE_PRIORITY);
-        collectNamesOfSubTypesIntoTypeContext(newContext.typeContext(), typeInfo);
+        parsers.parseType().addToContext(newContext, typeInfo, CURRENT_TYPE_PRIORITY);
+        collectNamesOfSubTypesIntoTypeContext(newContext, typeInfo);
 
         List<Node> typeParametersToParse = new ArrayList<>();
 
@@ -161,7 +161,7 @@ public class ParseTypeDeclaration extends CommonParse {
             i++;
         }
         typeInfo.typeParameters().forEach(tp ->
-                newContext.typeContext().addToContext(tp, TYPE_PARAMETER_PRIORITY));
+                parsers.parseType().addToContext(newContext, tp, TYPE_PARAMETER_PRIORITY));
         assert typeInfo.typeParameters().size() == typeParametersToParse.size();
         if (!typeParametersToParse.isEmpty()) {
             parseAndResolveTypeParameterBounds(typeParametersToParse, typeInfo.typeParameters(), newContext);
@@ -221,7 +221,8 @@ public class ParseTypeDeclaration extends CommonParse {
         // IMPORTANT: delaying is only done at the top-level; not for subtypes. See inspection-integration/
         // do not change the order in the OR disjunction; we must add the subtypes!
         if (!mustDelayForStaticStarImport
-            && (newContext.typeContext().addSubTypesOfHierarchyReturnAllDefined(typeInfo, SUBTYPE_HIERARCHY_PRIORITY)
+            && (parsers.parseType().addSubTypesOfHierarchyReturnAllDefined(newContext, typeInfo,
+                SUBTYPE_HIERARCHY_PRIORITY)
                 && hierarchyOfImportsAllDefined(typeInfo.compilationUnit(), context.typeContext())
                 || packageNameOrEnclosing.isRight())) {
             return Either.left(continueParsingTypeDeclaration(typeInfo, builder, td, context, typeNature, newContext,
@@ -258,10 +259,11 @@ public class ParseTypeDeclaration extends CommonParse {
 
     public Either<TypeInfo, DelayedParsingInformation> continueParsingTypeDeclaration(DelayedParsingInformation d) {
         // try again...
-        if (d.newContext.typeContext().addSubTypesOfHierarchyReturnAllDefined(d.typeInfo, SUBTYPE_HIERARCHY_PRIORITY)
+        if (parsers.parseType().addSubTypesOfHierarchyReturnAllDefined(d.newContext, d.typeInfo,
+                SUBTYPE_HIERARCHY_PRIORITY)
             && d.typeInfo.compilationUnit().importStatements().stream()
-                    .allMatch(is -> !is.isStatic()
-                                    || d.context.typeContext().addToStaticImportMap(d.typeInfo.compilationUnit(), is))) {
+                    .allMatch(is -> !is.isStatic() || parsers.parseType().addToStaticImportMap(d.context,
+                            d.typeInfo.compilationUnit(), is))) {
             return Either.left(continueParsingTypeDeclaration(d.typeInfo, d.builder, d.td, d.context, d.typeNature,
                     d.newContext, d.detailedSourcesBuilder, d.iStart, d.annotations, d.recordComponents));
         }
@@ -354,7 +356,7 @@ public class ParseTypeDeclaration extends CommonParse {
             for (Node child : body.children()) {
                 if (child instanceof TypeDeclaration subTd) {
                     TypeInfo subTypeInfo = parse(newContext, Either.right(typeInfo), subTd, false).getLeft();
-                    newContext.typeContext().addToContext(subTypeInfo, SUBTYPE_PRIORITY);
+                    parsers.parseType().addToContext(newContext, subTypeInfo, SUBTYPE_PRIORITY);
                 }
             }
             for (Node child : body.children()) {
@@ -431,14 +433,15 @@ public class ParseTypeDeclaration extends CommonParse {
         return prefix + simpleName;
     }
 
-    private void collectNamesOfSubTypesIntoTypeContext(TypeContext typeContext, TypeInfo typeInfo) {
-        typeContext.addToContext(typeInfo, SUBTYPE_PRIORITY);
+    private void collectNamesOfSubTypesIntoTypeContext(Context context, TypeInfo typeInfo) {
+        ParseType parseType = parsers.parseType();
+        parseType.addToContext(context, typeInfo, SUBTYPE_PRIORITY);
         // add direct children
         for (TypeInfo subType : typeInfo.subTypes()) {
-            typeContext.addToContext(subType, SUBTYPE_PRIORITY);
+            parseType.addToContext(context, subType, SUBTYPE_PRIORITY);
         }
         if (typeInfo.compilationUnitOrEnclosingType().isRight()) {
-            collectNamesOfSubTypesIntoTypeContext(typeContext, typeInfo.compilationUnitOrEnclosingType().getRight());
+            collectNamesOfSubTypesIntoTypeContext(context, typeInfo.compilationUnitOrEnclosingType().getRight());
         }
     }
 
@@ -543,7 +546,7 @@ public class ParseTypeDeclaration extends CommonParse {
             TypeInfo subTypeInfo = parse(newContext, Either.right(typeInfo), typeDeclaration,
                     false).getLeft();
             // for the rest of the body
-            newContext.typeContext().addToContext(subTypeInfo, SUBTYPE_PRIORITY);
+            parsers.parseType().addToContext(newContext, subTypeInfo, SUBTYPE_PRIORITY);
         }
 
         // THEN, all sorts of methods and constructors
@@ -18,8 +18,19 @@ public class Parsers {
     private final ParseLambdaExpression parseLambdaExpression;
     private final ParseBlock parseBlock;
     private final ParseRecordPattern parseRecordPattern;
+    private final boolean anonymousTypeIndexFromPosition;
 
     public Parsers(Runtime runtime) {
+        this(runtime, false);
+    }
+
+    /*
+    anonymousTypeIndexFromPosition: number anonymous types, lambdas and local types by their position in the
+    source, rather than in the order in which they are parsed. Names then do not depend on the order in which
+    the resolver parses method bodies and field initializers, which is needed when it does so concurrently.
+     */
+    public Parsers(Runtime runtime, boolean anonymousTypeIndexFromPosition) {
+        this.anonymousTypeIndexFromPosition = anonymousTypeIndexFromPosition;
         parseType = new ParseType(runtime);
         parseBlock = new ParseBlock(runtime, this);
         parseExpression = new ParseExpression(runtime, this);
@@ -91,4 +102,8 @@ public class Parsers {
     public ParseRecordPattern parseRecordPattern() {
         return parseRecordPattern;
     }
+
+    public boolean anonymousTypeIndexFromPosition() {
+        return anonymousTypeIndexFromPosition;
+    }
 }
@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /*
 First round, we only prepare a type map.
@@ -43,6 +44,19 @@ public class ScanCompilationUnit extends CommonParse {
                            FingerPrint fingerPrint,
                            CompilationUnit cu,
                            boolean addDetailedSources) {
+        return scan(uri, sourceSet, fingerPrint, cu, addDetailedSources, summary::addParseException);
+    }
+
+    /*
+    Parse exceptions go to the given consumer rather than to the summary, so that concurrent scans
+    can each collect their own; see ParallelScan.
+     */
+    public ScanResult scan(URI uri,
+                           SourceSet sourceSet,
+                           FingerPrint fingerPrint,
+                           CompilationUnit cu,
+                           boolean addDetailedSources,
+                           Consumer<Summary.ParseException> parseExceptions) {
         try {
             return internalScan(uri, sourceSet, fingerPrint, cu, addDetailedSources);
         } catch (Summary.FailFastException ffe) {
@@ -50,7 +64,7 @@ public class ScanCompilationUnit extends CommonParse {
         } catch (RuntimeException re) {
             //re.printStackTrace(System.err);
             LOGGER.error("Caught exception scanning compilation unit {}", uri);
-            summary.addParseException(new Summary.ParseException(uri, cu, "Caught exception scanning compilation unit", re));
+            parseExceptions.accept(new Summary.ParseException(uri, cu, "Caught exception scanning compilation unit", re));
             return new ScanResult(Map.of(), null);
         }
     }
@@ -0,0 +1,31 @@
+package org.e2immu.parser.java;
+
+import org.e2immu.util.internal.util.StringUtil;
+
+/*
+Indices of the statements in a block, the blocks of a try statement, or the entries of a switch: a prefix, typically
+the index of the enclosing statement followed by a separator, and the position, padded so that indices sort in
+statement order.
+
+The indices end up as strings in Source objects, so they are rendered right away; but the prefix is concatenated
+once rather than once per statement, and asking for the same position twice in a row returns the same string.
+ */
+class StatementIndex {
+    private final String prefix;
+    private final int n;
+    private int lastPos = -1;
+    private String lastIndex;
+
+    StatementIndex(String prefix, int n) {
+        this.prefix = prefix;
+        this.n = n;
+    }
+
+    String index(int pos) {
+        if (pos != lastPos) {
+            lastIndex = prefix + StringUtil.pad(pos, n);
+            lastPos = pos;
+        }
+        return lastIndex;
+    }
+}
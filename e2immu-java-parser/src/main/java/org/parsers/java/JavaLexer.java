@@ -7,7 +7,7 @@ import java.util.*;
 
 
 public class JavaLexer extends TokenSource {
-    private static MatcherHook MATCHER_HOOK;
+    private static final MatcherHook MATCHER_HOOK;
 
     // this cannot be initialized here, since hook must be set afterwards
     public enum LexicalState {
@@ -15,10 +15,14 @@ public class JavaLexer extends TokenSource {
     }
 
     LexicalState lexicalState = LexicalState.values()[0];
-    EnumSet<TokenType> activeTokenTypes = EnumSet.allOf(TokenType.class);
-    {
-        activeTokenTypes.remove(NON_SEALED);
-    }
+    // see setDfaFastPath
+    private boolean dfaFastPath = true;
+    // reused across calls to tokenizeAt, which is not re-entrant
+    private final MatchInfo matchInfo = new MatchInfo();
+    private final BitSet currentStates = new BitSet(552);
+    private final BitSet nextStates = new BitSet(552);
+    static final EnumSet<TokenType> defaultActiveTokenTypes = EnumSet.complementOf(EnumSet.of(NON_SEALED));
+    EnumSet<TokenType> activeTokenTypes = EnumSet.copyOf(defaultActiveTokenTypes);
     // Token types that are "regular" tokens that participate in parsing,
     // i.e. declared as TOKEN
     static final EnumSet<TokenType> regularTokens = EnumSet.of(EOF, CTRL_Z, UNDERSCORE, ABSTRACT, _ASSERT, BOOLEAN, BREAK, BYTE, CASE, CATCH, CHAR, CLASS, CONST, CONTINUE, _DEFAULT, DO, DOUBLE, ELSE, ENUM, EXTENDS, FALSE, FINAL, FINALLY, FLOAT, FOR, GOTO, IF, IMPLEMENTS, _IMPORT, INSTANCEOF, INT, INTERFACE, LONG, NATIVE, NEW, NULL, PACKAGE, PRIVATE, PROTECTED, PUBLIC, RETURN, SHORT, STATIC, STRICTFP, SUPER, SWITCH, SYNCHRONIZED, THIS, THROW, THROWS, TRANSIENT, TRUE, TRY, VOID, VOLATILE, WHILE, NON_SEALED, LPAREN, RPAREN, LBRACE, RBRACE, LBRACKET, RBRACKET, SEMICOLON, COMMA, DOT, DOUBLE_COLON, VAR_ARGS, AT, ASSIGN, GT, LT, BANG, TILDE, HOOK, COLON, EQ, LE, GE, NE, SC_OR, SC_AND, INCR, DECR, PLUS, MINUS, STAR, SLASH, BIT_AND, BIT_OR, XOR, REM, LSHIFT, PLUSASSIGN, MINUSASSIGN, STARASSIGN, SLASHASSIGN, ANDASSIGN, ORASSIGN, XORASSIGN, REMASSIGN, LSHIFTASSIGN, RSIGNEDSHIFT, RUNSIGNEDSHIFT, RSIGNEDSHIFTASSIGN, RUNSIGNEDSHIFTASSIGN, LAMBDA, OPEN, MODULE, REQUIRES, TRANSITIVE, EXPORTS, TO, OPENS, USES, PROVIDES, WITH, RECORD, PERMITS, VAR, WHEN, YIELD, CHARACTER_LITERAL, STRING_LITERAL, TEXT_BLOCK_LITERAL, INTEGER_LITERAL, LONG_LITERAL, FLOATING_POINT_LITERAL, IDENTIFIER);
@@ -60,6 +64,31 @@ public class JavaLexer extends TokenSource {
         if (lexicalState != null) switchTo(lexState);
     }
 
+    /**
+    * A lexer over the same content as the given one, with a token cache of its own; see TokenSource.
+    * It starts in the default lexical state, with the default token types active, and uses the DFA fast path
+    * if the given lexer does.
+    */
+    public JavaLexer(JavaLexer source) {
+        super(source);
+        this.dfaFastPath = source.dfaFastPath;
+    }
+
+    /**
+    * Rebinds this lexer to new input, as if it were newly constructed with it, but keeping its internal buffers.
+    * Tokens and nodes obtained from the previous input must no longer be used.
+    */
+    public void rebind(String inputSource, CharSequence input) {
+        rebind(inputSource, input, 1, 1, false, false, true, "\n");
+        lexicalState = LexicalState.values()[0];
+        if (activeTokenTypes == null) {
+            activeTokenTypes = EnumSet.copyOf(defaultActiveTokenTypes);
+        } else {
+            activeTokenTypes.clear();
+            activeTokenTypes.addAll(defaultActiveTokenTypes);
+        }
+    }
+
     public Token getNextToken(Token tok) {
         return getNextToken(tok, this.activeTokenTypes);
     }
@@ -193,18 +222,16 @@ public class JavaLexer extends TokenSource {
         Token matchedToken = null;
         TokenType matchedType = null;
         // The core tokenization loop
-        MatchInfo matchInfo = new MatchInfo();
-        BitSet currentStates = new BitSet(552);
-        BitSet nextStates = new BitSet(552);
+        MatchInfo matchInfo;
         while (matchedToken == null) {
             if (!inMore) tokenBeginOffset = position;
-            if (MATCHER_HOOK != null) {
-                matchInfo = MATCHER_HOOK.apply(lexicalState, this, position, activeTokenTypes, nfaFunctions, currentStates, nextStates, matchInfo);
+            if (dfaFastPath) {
+                matchInfo = MATCHER_HOOK.apply(lexicalState, this, position, activeTokenTypes, nfaFunctions, currentStates, nextStates, this.matchInfo);
                 if (matchInfo == null) {
-                    matchInfo = getMatchInfo(this, position, activeTokenTypes, nfaFunctions, currentStates, nextStates, matchInfo);
+                    matchInfo = getMatchInfo(this, position, activeTokenTypes, nfaFunctions, currentStates, nextStates, this.matchInfo);
                 }
             } else {
-                matchInfo = getMatchInfo(this, position, activeTokenTypes, nfaFunctions, currentStates, nextStates, matchInfo);
+                matchInfo = getMatchInfo(this, position, activeTokenTypes, nfaFunctions, currentStates, nextStates, this.matchInfo);
             }
             matchedType = matchInfo.matchedType;
             inMore = moreTokens.contains(matchedType);
@@ -221,9 +248,9 @@ public class JavaLexer extends TokenSource {
             if (invalidRegionStart != -1) {
                 return new InvalidToken(this, invalidRegionStart, tokenBeginOffset);
             }
-            if (skippedTokens.contains(matchedType)) {
-                skipTokens(tokenBeginOffset, position);
-            } else if (regularTokens.contains(matchedType) || unparsedTokens.contains(matchedType)) {
+            // skipped tokens are not cached, they simply have no entry in the token source
+            if (!skippedTokens.contains(matchedType)
+                && (regularTokens.contains(matchedType) || unparsedTokens.contains(matchedType))) {
                 matchedToken = Token.newToken(matchedType, this, tokenBeginOffset, position);
                 matchedToken.setUnparsed(!regularTokens.contains(matchedType));
             }
@@ -290,6 +317,19 @@ public class JavaLexer extends TokenSource {
     // Initialize the various NFA method tables
     static {
         JAVA.NFA_FUNCTIONS_init();
+        MATCHER_HOOK = JavaLexerDfa::getMatchInfo;
+    }
+
+    /**
+     * The DFA fast path (see JavaLexerDfa) is active by default; switching it off makes all tokenization
+     * by this lexer go through the NFA. Other lexers are not affected.
+     */
+    public void setDfaFastPath(boolean enabled) {
+        this.dfaFastPath = enabled;
+    }
+
+    public boolean isDfaFastPath() {
+        return dfaFastPath;
     }
 
     //The Nitty-gritty of the NFA code follows.
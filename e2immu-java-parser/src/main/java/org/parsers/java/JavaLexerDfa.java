@@ -0,0 +1,333 @@
+package org.parsers.java;
+
+import org.parsers.java.JavaLexer.LexicalState;
+import org.parsers.java.JavaLexer.MatchInfo;
+import org.parsers.java.JavaLexer.NfaFunction;
+import org.parsers.java.Token.TokenType;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+
+import static org.parsers.java.Token.TokenType.*;
+
+/**
+ * Deterministic fast path for the JavaLexer, plugged in as its matcher hook.
+ * <p>
+ * The DFA covers the common ASCII tokens: whitespace, comments, identifiers, keywords, operators and separators,
+ * simple decimal integer and long literals, and string literals with simple escapes.
+ * Transitions are stored in a single int array, indexed by state and character class (the 128 ASCII characters,
+ * plus one class for all other UTF-16 code units). A transition to {@link #BAIL} means that the DFA cannot decide
+ * with certainty (non-ASCII identifier parts, text blocks, character literals, floating point and non-decimal
+ * literals, ...); the hook then returns null and the lexer falls back to the NFA at the same position.
+ * <p>
+ * Like the NFA, the DFA returns the longest match among the active token types.
+ * There is no allocation per token, apart from the MatchInfo when the caller does not provide one.
+ * Whitespace and comments, which make up a large part of the characters of a typical source file, are handled
+ * by a pre-scanner in front of the table.
+ */
+final class JavaLexerDfa {
+    private static final int COLUMNS = 129;
+    private static final int NON_ASCII = 128;
+    private static final int DEAD = -1;
+    private static final int BAIL = -2;
+    private static final int START = 0;
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private static int[] transitions;
+    private static int[] accept;
+    // alternative accepting type, when the primary one is not active (keyword -> identifier)
+    private static int[] acceptAlternative;
+
+    static {
+        new Builder().build();
+    }
+
+    private JavaLexerDfa() {
+    }
+
+    static MatchInfo getMatchInfo(LexicalState lexicalState,
+                                  CharSequence input,
+                                  int position,
+                                  EnumSet<TokenType> activeTokenTypes,
+                                  NfaFunction[] nfaFunctions,
+                                  BitSet currentStates,
+                                  BitSet nextStates,
+                                  MatchInfo matchInfo) {
+        if (lexicalState != LexicalState.JAVA) return null;
+        if (matchInfo == null) matchInfo = new MatchInfo();
+        int length = input.length();
+        if (position >= length) {
+            matchInfo.matchedType = EOF;
+            matchInfo.matchLength = 0;
+            return matchInfo;
+        }
+        CharSequence text = input instanceof TokenSource tokenSource ? tokenSource.content() : input;
+        int end = skipWhitespaceOrComment(text, position, activeTokenTypes, matchInfo);
+        if (end >= 0) {
+            matchInfo.matchLength = end - position;
+            return matchInfo;
+        }
+        int[] transitions = JavaLexerDfa.transitions;
+        int state = START;
+        int i = position;
+        int matchedType = -1;
+        int matchEnd = position;
+        while (i < length) {
+            char c = text.charAt(i);
+            int next = transitions[state * COLUMNS + (c < NON_ASCII ? c : NON_ASCII)];
+            if (next < 0) {
+                if (next == BAIL) return null;
+                break;
+            }
+            state = next;
+            i++;
+            int type = accept[state];
+            if (type >= 0) {
+                if (isActive(activeTokenTypes, type)) {
+                    matchedType = type;
+                    matchEnd = i;
+                } else {
+                    int alternative = acceptAlternative[state];
+                    if (alternative >= 0 && isActive(activeTokenTypes, alternative)) {
+                        matchedType = alternative;
+                        matchEnd = i;
+                    }
+                }
+            }
+        }
+        if (matchedType < 0) return null; // let the NFA produce the INVALID token
+        matchInfo.matchedType = TYPES[matchedType];
+        matchInfo.matchLength = matchEnd - position;
+        return matchInfo;
+    }
+
+    /*
+    Pre-scanner for the most frequent tokens by character count: runs of whitespace, and comments.
+    Returns the end of the token and sets the matched type, or returns -1 to leave the position to the DFA.
+    On String content, comment ends are found with String.indexOf, which the JIT compiles to vectorized code.
+    Line terminators are always '\n' in the munged content.
+     */
+    private static int skipWhitespaceOrComment(CharSequence text, int position, EnumSet<TokenType> activeTokenTypes,
+                                               MatchInfo matchInfo) {
+        int length = text.length();
+        char first = text.charAt(position);
+        TokenType type;
+        int end;
+        if (isWhitespace(first)) {
+            type = WHITESPACE;
+            end = position + 1;
+            while (end < length && isWhitespace(text.charAt(end))) end++;
+        } else if (first == '/' && position + 1 < length) {
+            char second = text.charAt(position + 1);
+            if (second == '/') {
+                type = SINGLE_LINE_COMMENT;
+                int newline = text instanceof String s ? s.indexOf('\n', position + 2) : indexOf(text, '\n', position + 2);
+                end = newline < 0 ? -1 : newline + 1;
+            } else if (second == '*') {
+                type = MULTI_LINE_COMMENT;
+                int close = text instanceof String s ? s.indexOf("*/", position + 2) : indexOfCommentEnd(text, position + 2);
+                end = close < 0 ? -1 : close + 2;
+            } else {
+                return -1;
+            }
+        } else {
+            return -1;
+        }
+        if (end < 0 || !isActive(activeTokenTypes, type.ordinal())) return -1;
+        matchInfo.matchedType = type;
+        return end;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\f' || c == '\r';
+    }
+
+    private static int indexOf(CharSequence text, char c, int from) {
+        for (int i = from, length = text.length(); i < length; i++) {
+            if (text.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private static int indexOfCommentEnd(CharSequence text, int from) {
+        for (int i = from, last = text.length() - 1; i < last; i++) {
+            if (text.charAt(i) == '*' && text.charAt(i + 1) == '/') return i;
+        }
+        return -1;
+    }
+
+    private static boolean isActive(EnumSet<TokenType> activeTokenTypes, int type) {
+        return activeTokenTypes == null || activeTokenTypes.contains(TYPES[type]);
+    }
+
+    private static class Builder {
+        private int[] t = new int[64 * COLUMNS];
+        private int[] a = new int[64];
+        private int[] alt = new int[64];
+        private int n;
+        private int identifier;
+
+        private int newState(int acceptType, int fill) {
+            if (n == a.length) {
+                t = Arrays.copyOf(t, 2 * n * COLUMNS);
+                a = Arrays.copyOf(a, 2 * n);
+                alt = Arrays.copyOf(alt, 2 * n);
+            }
+            Arrays.fill(t, n * COLUMNS, (n + 1) * COLUMNS, fill);
+            a[n] = acceptType;
+            alt[n] = -1;
+            return n++;
+        }
+
+        private void set(int from, int c, int to) {
+            t[from * COLUMNS + c] = to;
+        }
+
+        private int get(int from, int c) {
+            return t[from * COLUMNS + c];
+        }
+
+        private static boolean isLetter(int c) {
+            return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_' || c == '$';
+        }
+
+        void build() {
+            int start = newState(-1, BAIL);
+            assert start == START;
+
+            // whitespace
+            int ws = newState(WHITESPACE.ordinal(), DEAD);
+            for (int c = 0; c < NON_ASCII; c++) {
+                if (isWhitespace(c)) {
+                    set(start, c, ws);
+                    set(ws, c, ws);
+                }
+            }
+
+            // identifiers and keywords; the keywords form a trie that falls back to the identifier state
+            identifier = newState(IDENTIFIER.ordinal(), DEAD);
+            identifierTransitions(identifier);
+            for (TokenType type : TYPES) {
+                String literal = type.getLiteralString();
+                if (literal != null && !literal.isEmpty() && isLetter(literal.charAt(0))
+                    && !type.isContextualKeyword() && type != NON_SEALED) {
+                    int state = identifierPrefix(literal);
+                    a[state] = type.ordinal();
+                    alt[state] = IDENTIFIER.ordinal();
+                }
+            }
+            // non-sealed, when active, is left to the NFA
+            set(identifierPrefix("non"), '-', BAIL);
+            for (int c = 0; c < NON_ASCII; c++) {
+                if (isLetter(c) && get(start, c) == BAIL) set(start, c, identifier);
+            }
+
+            // operators and separators, as a trie
+            for (TokenType type : TYPES) {
+                String literal = type.getLiteralString();
+                if (literal == null || literal.isEmpty() || isLetter(literal.charAt(0))) continue;
+                int state = start;
+                for (int i = 0; i < literal.length(); i++) {
+                    int c = literal.charAt(i);
+                    int next = get(state, c);
+                    if (next < 0) {
+                        next = newState(-1, DEAD);
+                        set(state, c, next);
+                    }
+                    state = next;
+                }
+                a[state] = type.ordinal();
+            }
+            // .5 is a floating point literal
+            int dot = get(start, '.');
+            for (int c = '0'; c <= '9'; c++) set(dot, c, BAIL);
+
+            // comments; a single line comment includes its line terminator
+            int slash = get(start, '/');
+            int singleLine = newState(-1, DEAD);
+            for (int c = 0; c < COLUMNS; c++) set(singleLine, c, singleLine);
+            int singleLineEnd = newState(SINGLE_LINE_COMMENT.ordinal(), DEAD);
+            set(slash, '/', singleLine);
+            set(singleLine, '\n', singleLineEnd);
+            set(singleLine, '\r', BAIL);
+
+            int multiLine = newState(-1, DEAD);
+            int multiLineStar = newState(-1, DEAD);
+            int multiLineEnd = newState(MULTI_LINE_COMMENT.ordinal(), DEAD);
+            for (int c = 0; c < COLUMNS; c++) {
+                set(multiLine, c, multiLine);
+                set(multiLineStar, c, multiLine);
+            }
+            set(slash, '*', multiLine);
+            set(multiLine, '*', multiLineStar);
+            set(multiLineStar, '*', multiLineStar);
+            set(multiLineStar, '/', multiLineEnd);
+
+            // decimal integer and long literals; everything more complicated goes to the NFA
+            int decimal = newState(INTEGER_LITERAL.ordinal(), DEAD);
+            int longLiteral = newState(LONG_LITERAL.ordinal(), DEAD);
+            for (int c = 0; c < NON_ASCII; c++) {
+                if (isLetter(c) || c == '.') set(decimal, c, BAIL);
+            }
+            for (int c = '0'; c <= '9'; c++) {
+                set(start, c, decimal);
+                set(decimal, c, decimal);
+            }
+            set(decimal, 'l', longLiteral);
+            set(decimal, 'L', longLiteral);
+
+            // string literals with simple escapes; not text blocks
+            int stringOpen = newState(-1, BAIL);
+            int stringBody = newState(-1, BAIL);
+            int stringEscape = newState(-1, BAIL);
+            int stringEmpty = newState(STRING_LITERAL.ordinal(), DEAD);
+            int stringEnd = newState(STRING_LITERAL.ordinal(), DEAD);
+            for (int c = ' '; c < COLUMNS; c++) {
+                if (c != 0x7F) {
+                    set(stringOpen, c, stringBody);
+                    set(stringBody, c, stringBody);
+                }
+            }
+            set(start, '"', stringOpen);
+            set(stringOpen, '"', stringEmpty);
+            set(stringEmpty, '"', BAIL);
+            set(stringBody, '"', stringEnd);
+            set(stringOpen, '\\', stringEscape);
+            set(stringBody, '\\', stringEscape);
+            for (char c : "btnfrs\"'\\".toCharArray()) {
+                set(stringEscape, c, stringBody);
+            }
+
+            transitions = Arrays.copyOf(t, n * COLUMNS);
+            accept = Arrays.copyOf(a, n);
+            acceptAlternative = Arrays.copyOf(alt, n);
+        }
+
+        /*
+        the state reached by the identifier characters of the prefix, creating dedicated states where needed
+         */
+        private int identifierPrefix(String prefix) {
+            int state = START;
+            for (int i = 0; i < prefix.length(); i++) {
+                int c = prefix.charAt(i);
+                int next = get(state, c);
+                if (next == BAIL || next == identifier) {
+                    next = newState(IDENTIFIER.ordinal(), DEAD);
+                    identifierTransitions(next);
+                    set(state, c, next);
+                }
+                state = next;
+            }
+            return state;
+        }
+
+        private void identifierTransitions(int state) {
+            for (int c = 0; c < NON_ASCII; c++) {
+                if (isLetter(c) || c >= '0' && c <= '9') set(state, c, identifier);
+                else if (c < ' ' && !isWhitespace(c) || c == 0x7F) set(state, c, BAIL);
+            }
+            set(state, NON_ASCII, BAIL);
+        }
+    }
+}
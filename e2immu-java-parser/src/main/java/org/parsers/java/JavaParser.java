@@ -12,6 +12,7 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.ListIterator;
 import java.util.concurrent.CancellationException;
 import org.parsers.java.Token.TokenType;
@@ -175,6 +176,13 @@ public class JavaParser {
     private String currentLookaheadProduction;
     private int lookaheadRoutineNesting;
     private boolean cancelled;
+    // outcomes of production lookahead routines, null when lookahead memoization is off
+    private LookaheadMemo lookaheadMemo;
+    private static final int LOOKAHEAD_MEMO_BITS = 12;
+    // NewSwitchLabel frames on the call and lookahead stacks; the LambdaExpression lookahead depends on them
+    private int newSwitchLabelFrames;
+    // when set, Block() only matches the braces of a block, see setSkipBlockContents
+    private boolean skipBlockContents;
 
     public void cancel() {
         cancelled = true;
@@ -188,6 +196,94 @@ public class JavaParser {
         return false;
     }
 
+    /**
+    * Memoize the outcomes of the lookahead routines of productions, keyed by routine and start token,
+    * in a table of bounded size that is cleared for every input. Choices that try several alternatives
+    * starting with the same productions (types, modifiers and annotations, casts, lambdas) then scan them
+    * only once at a given position. Off by default.
+    */
+    public void setLookaheadMemoization(boolean lookaheadMemoization) {
+        lookaheadMemo = lookaheadMemoization ? new LookaheadMemo(LOOKAHEAD_MEMO_BITS) : null;
+    }
+
+    public boolean isLookaheadMemoization() {
+        return lookaheadMemo != null;
+    }
+
+    /*
+    * Called on entry of a memoized lookahead routine. On a hit, the parser's lookahead state is set to what
+    * the routine would have left, and the outcome, 0 or 1, is returned.
+    * A routine's outcome only depends on its start token when the lookahead is unlimited, when no
+    * "up to here" marker of the routine applies (the marker ends the lookahead at the outer level only),
+    * when the default token types are active, and outside the NewSwitchLabel production.
+    */
+    private int memoizedLookahead(int routine, boolean scanToEnd) {
+        if (lookaheadMemo == null || hitFailure || remainingLookahead < UNLIMITED / 2
+            || !scanToEnd && lookaheadStack.size() <= 1 || newSwitchLabelFrames > 0
+            || "NewSwitchLabel".equals(currentlyParsedProduction) || "NewSwitchLabel".equals(currentLookaheadProduction)
+            || !JavaLexer.defaultActiveTokenTypes.equals(token_source.activeTokenTypes)) {
+            return LookaheadMemo.NOT_MEMOIZABLE;
+        }
+        int slot = lookaheadMemo.find(routine, currentLookaheadToken, passedPredicate);
+        if (slot < 0) return LookaheadMemo.MISS;
+        currentLookaheadToken = lookaheadMemo.endToken(slot);
+        remainingLookahead -= lookaheadMemo.scanned(slot);
+        hitFailure = lookaheadMemo.hitFailure(slot);
+        passedPredicate = lookaheadMemo.passedPredicate(slot);
+        nextTokenType = null;
+        return lookaheadMemo.result(slot) ? 1 : 0;
+    }
+
+    /**
+    * Skip the contents of blocks: method bodies, initializers, and the block bodies of lambdas and switch rules
+    * outside of methods. The tokens between the braces are matched by counting braces, without parsing them;
+    * string, character and text block literals, and comments, are single tokens, so they cannot unbalance
+    * the count. The resulting CodeBlock only has its two braces as children, and is marked as skipped.
+    * Its contents can be parsed later on, with parseSkippedBlock. Off by default.
+    */
+    public void setSkipBlockContents(boolean skipBlockContents) {
+        this.skipBlockContents = skipBlockContents;
+    }
+
+    public boolean isSkipBlockContents() {
+        return skipBlockContents;
+    }
+
+    /**
+    * Parse the contents of a block that was skipped, see setSkipBlockContents. The new CodeBlock is not attached
+    * to the tree, which keeps the skipped one: once converted, it can be garbage collected, and so can the tokens
+    * of its lexer, a lexer of its own over the content of the skipped block's lexer. The token cache of the
+    * compilation unit is neither needed nor modified; its content must not have been rebound in the meantime.
+    * Until it is collected, the new block is returned again for the same skipped one: the body of a lambda is
+    * parsed once for every candidate method during overload resolution.
+    */
+    public static CodeBlock parseSkippedBlock(CodeBlock skipped) {
+        CodeBlock parsed = skipped.getParsed();
+        if (parsed != null) return parsed;
+        JavaLexer lexer = new JavaLexer(skipped.getTokenSource());
+        JavaParser parser = new JavaParser(lexer);
+        // lexing starts at the comments preceding the opening brace, which belong to it
+        int start = skipped.getBeginOffset();
+        if (skipped.getFirstChild() instanceof Token lbrace) {
+            List<Token> comments = lbrace.precedingUnparsedTokens();
+            if (!comments.isEmpty()) start = comments.get(0).getBeginOffset();
+        }
+        parser.lastConsumedToken.setBeginOffset(start);
+        parser.lastConsumedToken.setEndOffset(start);
+        parser.Block();
+        CodeBlock codeBlock = (CodeBlock) parser.popNode();
+        skipped.setParsed(codeBlock);
+        return codeBlock;
+    }
+
+    // the start state is passed in by the memoized routine, evaluated before the call that computes the result
+    private boolean memoizeLookahead(int routine, Token start, int remaining, boolean passedPredicateBefore,
+                                     boolean result) {
+        lookaheadMemo.store(routine, start, passedPredicateBefore, result, currentLookaheadToken,
+                remaining - remainingLookahead, hitFailure, passedPredicate);
+        return result;
+    }
+
     /** Generated Lexer. */
     private JavaLexer token_source;
 
@@ -236,6 +332,42 @@ public class JavaParser {
         lastConsumedToken.setTokenSource(lexer);
     }
 
+    /**
+    * Set the symbol table of the lexer, see {@link TokenSource#setSymbolTable(SymbolTable)}.
+    */
+    public void setSymbolTable(SymbolTable symbolTable) {
+        token_source.setSymbolTable(symbolTable);
+    }
+
+    /**
+    * Rebinds this parser, and its lexer, to new input, keeping warmed-up internal buffers.
+    * The parser must not be in use; the tree and tokens of the previous parse must no longer be used,
+    * as they refer to the lexer for their text.
+    * Settings such as tolerant parsing and tree building are kept.
+    */
+    public void rebind(String inputSource, CharSequence content) {
+        token_source.rebind(inputSource, content);
+        DUMMY_START_TOKEN.setParent(null);
+        lastConsumedToken = DUMMY_START_TOKEN;
+        permissibleModifiers = null;
+        nextTokenType = null;
+        currentLookaheadToken = null;
+        remainingLookahead = 0;
+        hitFailure = false;
+        passedPredicate = false;
+        passedPredicateThreshold = -1;
+        currentlyParsedProduction = null;
+        currentLookaheadProduction = null;
+        lookaheadRoutineNesting = 0;
+        cancelled = false;
+        parsingStack.clear();
+        lookaheadStack.clear();
+        newSwitchLabelFrames = 0;
+        if (lookaheadMemo != null) lookaheadMemo.clear();
+        currentNodeScope = null;
+        currentNodeScope = new NodeScope();
+    }
+
     /**
     * Set the starting line/column for location reporting.
     * By default, this is 1,1.
@@ -7810,6 +7942,10 @@ public class JavaParser {
     final public void Block() {
         if (cancelled) throw new CancellationException();
         this.currentlyParsedProduction = "Block";
+        if (skipBlockContents) {
+            skipBlock();
+            return;
+        }
         // Code for BNFProduction specified at Java.ccc:1092:1
         CodeBlock thisProduction = null;
         if (buildTree) {
@@ -7859,6 +7995,55 @@ public class JavaParser {
         }
     }
 
+    // Block() with the contents skipped: only the braces are consumed as nodes
+    private void skipBlock() {
+        CodeBlock thisProduction = null;
+        if (buildTree) {
+            thisProduction = new CodeBlock();
+            openNodeScope(thisProduction);
+        }
+        ParseException parseException3 = null;
+        int callStackSize4 = parsingStack.size();
+        try {
+            pushOntoCallStack("Block", "Java.ccc", 1092, 20);
+            try {
+                Token lbrace = consumeToken(LBRACE);
+                int depth = 0;
+                while (true) {
+                    Token next = nextToken(lastConsumedToken);
+                    TokenType type = next.getType();
+                    if (type == RBRACE) {
+                        if (depth == 0) break;
+                        --depth;
+                    } else if (type == LBRACE) {
+                        ++depth;
+                    } else if (type == EOF) {
+                        break; // consumeToken(RBRACE) fails
+                    }
+                    lastConsumedToken = next;
+                }
+                consumeToken(RBRACE);
+                // the skipped tokens are not part of the tree, and the contents are lexed again when parsed
+                token_source.uncacheTokens(lbrace.getEndOffset(), lastConsumedToken.getBeginOffset());
+            } finally {
+                popCallStack();
+            }
+            if (thisProduction != null) thisProduction.setSkipped(true);
+        } catch (ParseException e) {
+            parseException3 = e;
+            throw e;
+        } finally {
+            restoreCallStack(callStackSize4);
+            if (thisProduction != null) {
+                if (parseException3 == null) {
+                    closeNodeScope(thisProduction, true);
+                } else {
+                    clearNodeScope();
+                }
+            }
+        }
+    }
+
     // Java.ccc:1094:1
     final public void BlockStatement() {
         if (cancelled) throw new CancellationException();
@@ -29170,8 +29355,17 @@ public class JavaParser {
         return true;
     }
 
-    // BuildProductionLookaheadMethod macro
+    // Memoized lookahead routine, see setLookaheadMemoization
     private boolean check$Modifiers(boolean scanToEnd) {
+        int memo = memoizedLookahead(0, scanToEnd);
+        if (memo == LookaheadMemo.NOT_MEMOIZABLE) return check$Modifiers$unmemoized(scanToEnd);
+        if (memo != LookaheadMemo.MISS) return memo == 1;
+        return memoizeLookahead(0, currentLookaheadToken, remainingLookahead, passedPredicate,
+                check$Modifiers$unmemoized(scanToEnd));
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$Modifiers$unmemoized(boolean scanToEnd) {
         // skipping check
         if (hitFailure) return false;
         if (remainingLookahead <= 0) return true;
@@ -31049,8 +31243,17 @@ public class JavaParser {
         return true;
     }
 
-    // BuildProductionLookaheadMethod macro
+    // Memoized lookahead routine, see setLookaheadMemoization
     private boolean check$Type(boolean scanToEnd) {
+        int memo = memoizedLookahead(1, scanToEnd);
+        if (memo == LookaheadMemo.NOT_MEMOIZABLE) return check$Type$unmemoized(scanToEnd);
+        if (memo != LookaheadMemo.MISS) return memo == 1;
+        return memoizeLookahead(1, currentLookaheadToken, remainingLookahead, passedPredicate,
+                check$Type$unmemoized(scanToEnd));
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$Type$unmemoized(boolean scanToEnd) {
         // skipping check
         // skipping check
         if (hitFailure) return false;
@@ -31237,8 +31440,17 @@ public class JavaParser {
         return true;
     }
 
-    // BuildProductionLookaheadMethod macro
+    // Memoized lookahead routine, see setLookaheadMemoization
     private boolean check$TypeArguments(boolean scanToEnd) {
+        int memo = memoizedLookahead(2, scanToEnd);
+        if (memo == LookaheadMemo.NOT_MEMOIZABLE) return check$TypeArguments$unmemoized(scanToEnd);
+        if (memo != LookaheadMemo.MISS) return memo == 1;
+        return memoizeLookahead(2, currentLookaheadToken, remainingLookahead, passedPredicate,
+                check$TypeArguments$unmemoized(scanToEnd));
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$TypeArguments$unmemoized(boolean scanToEnd) {
         // skipping check
         if (hitFailure) return false;
         if (remainingLookahead <= 0) return true;
@@ -31344,8 +31556,17 @@ public class JavaParser {
         return true;
     }
 
-    // BuildProductionLookaheadMethod macro
+    // Memoized lookahead routine, see setLookaheadMemoization
     private boolean check$PrimitiveType(boolean scanToEnd) {
+        int memo = memoizedLookahead(3, scanToEnd);
+        if (memo == LookaheadMemo.NOT_MEMOIZABLE) return check$PrimitiveType$unmemoized(scanToEnd);
+        if (memo != LookaheadMemo.MISS) return memo == 1;
+        return memoizeLookahead(3, currentLookaheadToken, remainingLookahead, passedPredicate,
+                check$PrimitiveType$unmemoized(scanToEnd));
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$PrimitiveType$unmemoized(boolean scanToEnd) {
         // skipping check
         if (hitFailure) return false;
         if (remainingLookahead <= 0) return true;
@@ -32255,8 +32476,17 @@ public class JavaParser {
         return true;
     }
 
-    // BuildProductionLookaheadMethod macro
+    // Memoized lookahead routine, see setLookaheadMemoization
     private boolean check$PrimitiveCastExpression(boolean scanToEnd) {
+        int memo = memoizedLookahead(4, scanToEnd);
+        if (memo == LookaheadMemo.NOT_MEMOIZABLE) return check$PrimitiveCastExpression$unmemoized(scanToEnd);
+        if (memo != LookaheadMemo.MISS) return memo == 1;
+        return memoizeLookahead(4, currentLookaheadToken, remainingLookahead, passedPredicate,
+                check$PrimitiveCastExpression$unmemoized(scanToEnd));
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$PrimitiveCastExpression$unmemoized(boolean scanToEnd) {
         // skipping check
         if (hitFailure) return false;
         if (remainingLookahead <= 0) return true;
@@ -32298,8 +32528,17 @@ public class JavaParser {
         return true;
     }
 
-    // BuildProductionLookaheadMethod macro
+    // Memoized lookahead routine, see setLookaheadMemoization
     private boolean check$ObjectCastExpression(boolean scanToEnd) {
+        int memo = memoizedLookahead(5, scanToEnd);
+        if (memo == LookaheadMemo.NOT_MEMOIZABLE) return check$ObjectCastExpression$unmemoized(scanToEnd);
+        if (memo != LookaheadMemo.MISS) return memo == 1;
+        return memoizeLookahead(5, currentLookaheadToken, remainingLookahead, passedPredicate,
+                check$ObjectCastExpression$unmemoized(scanToEnd));
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$ObjectCastExpression$unmemoized(boolean scanToEnd) {
         // skipping check
         if (hitFailure) return false;
         if (remainingLookahead <= 0) return true;
@@ -34535,8 +34774,17 @@ public class JavaParser {
         return true;
     }
 
-    // BuildProductionLookaheadMethod macro
+    // Memoized lookahead routine, see setLookaheadMemoization
     private boolean check$Annotation(boolean scanToEnd) {
+        int memo = memoizedLookahead(6, scanToEnd);
+        if (memo == LookaheadMemo.NOT_MEMOIZABLE) return check$Annotation$unmemoized(scanToEnd);
+        if (memo != LookaheadMemo.MISS) return memo == 1;
+        return memoizeLookahead(6, currentLookaheadToken, remainingLookahead, passedPredicate,
+                check$Annotation$unmemoized(scanToEnd));
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$Annotation$unmemoized(boolean scanToEnd) {
         // skipping check
         // skipping check
         if (hitFailure) return false;
@@ -35065,8 +35313,17 @@ public class JavaParser {
         return true;
     }
 
-    // BuildProductionLookaheadMethod macro
+    // Memoized lookahead routine, see setLookaheadMemoization
     private boolean check$LambdaExpression(boolean scanToEnd) {
+        int memo = memoizedLookahead(7, scanToEnd);
+        if (memo == LookaheadMemo.NOT_MEMOIZABLE) return check$LambdaExpression$unmemoized(scanToEnd);
+        if (memo != LookaheadMemo.MISS) return memo == 1;
+        return memoizeLookahead(7, currentLookaheadToken, remainingLookahead, passedPredicate,
+                check$LambdaExpression$unmemoized(scanToEnd));
+    }
+
+    // BuildProductionLookaheadMethod macro
+    private boolean check$LambdaExpression$unmemoized(boolean scanToEnd) {
         // skipping check
         if (hitFailure) return false;
         if (remainingLookahead <= 0) return true;
@@ -35297,11 +35554,13 @@ public class JavaParser {
 
     private void pushOntoCallStack(String methodName, String fileName, int line, int column) {
         parsingStack.add(new NonTerminalCall("JavaParser", getToken(1), fileName, methodName, line, column));
+        if ("NewSwitchLabel".equals(methodName)) ++newSwitchLabelFrames;
     }
 
     private void popCallStack() {
         NonTerminalCall ntc = parsingStack.remove(parsingStack.size() - 1);
         this.currentlyParsedProduction = ntc.productionName;
+        if ("NewSwitchLabel".equals(ntc.productionName)) --newSwitchLabelFrames;
     }
 
     private void restoreCallStack(int prevSize) {
@@ -35356,11 +35615,13 @@ public class JavaParser {
 
     private void pushOntoLookaheadStack(String methodName, String fileName, int line, int column) {
         lookaheadStack.add(new NonTerminalCall("JavaParser", getToken(1), fileName, methodName, line, column));
+        if ("NewSwitchLabel".equals(methodName)) ++newSwitchLabelFrames;
     }
 
     private void popLookaheadStack() {
         NonTerminalCall ntc = lookaheadStack.remove(lookaheadStack.size() - 1);
         this.currentLookaheadProduction = ntc.productionName;
+        if ("NewSwitchLabel".equals(ntc.productionName)) --newSwitchLabelFrames;
     }
 
     void dumpLookaheadStack(PrintStream ps) {
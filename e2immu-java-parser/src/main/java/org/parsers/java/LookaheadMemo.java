@@ -0,0 +1,89 @@
+package org.parsers.java;
+
+import java.util.Arrays;
+
+/**
+ * Bounded table of the outcomes of production lookahead routines, keyed by routine and start token, see
+ * {@link JavaParser#setLookaheadMemoization(boolean)}.
+ * <p>
+ * The table is direct-mapped: an entry that hashes to an occupied slot replaces its occupant, so that memory
+ * stays fixed however large the file. An entry records everything a lookahead routine changes in the parser's
+ * state: the token where it stopped, the number of tokens it scanned, and the failure and predicate flags.
+ */
+final class LookaheadMemo {
+    static final int NOT_MEMOIZABLE = -2;
+    static final int MISS = -1;
+
+    private static final int RESULT = 1;
+    private static final int HIT_FAILURE = 2;
+    private static final int PASSED_PREDICATE_BEFORE = 4;
+    private static final int PASSED_PREDICATE_AFTER = 8;
+
+    private final int shift;
+    private final int[] routines;
+    private final Token[] startTokens;
+    private final Token[] endTokens;
+    private final int[] scanned;
+    private final byte[] flags;
+
+    LookaheadMemo(int bits) {
+        shift = 32 - bits;
+        int size = 1 << bits;
+        routines = new int[size];
+        startTokens = new Token[size];
+        endTokens = new Token[size];
+        scanned = new int[size];
+        flags = new byte[size];
+    }
+
+    private int slot(int routine, Token start) {
+        return ((start.getBeginOffset() * 0x9E3779B1) ^ (routine * 0x85EBCA6B)) >>> shift;
+    }
+
+    /**
+     * @return the slot holding the outcome of the routine at the given start token, or -1
+     */
+    int find(int routine, Token start, boolean passedPredicate) {
+        int slot = slot(routine, start);
+        if (startTokens[slot] != start || routines[slot] != routine) return -1;
+        boolean before = (flags[slot] & PASSED_PREDICATE_BEFORE) != 0;
+        return before == passedPredicate ? slot : -1;
+    }
+
+    boolean result(int slot) {
+        return (flags[slot] & RESULT) != 0;
+    }
+
+    boolean hitFailure(int slot) {
+        return (flags[slot] & HIT_FAILURE) != 0;
+    }
+
+    boolean passedPredicate(int slot) {
+        return (flags[slot] & PASSED_PREDICATE_AFTER) != 0;
+    }
+
+    Token endToken(int slot) {
+        return endTokens[slot];
+    }
+
+    int scanned(int slot) {
+        return scanned[slot];
+    }
+
+    void store(int routine, Token start, boolean passedPredicateBefore, boolean result, Token end, int scanned,
+               boolean hitFailure, boolean passedPredicateAfter) {
+        int slot = slot(routine, start);
+        routines[slot] = routine;
+        startTokens[slot] = start;
+        endTokens[slot] = end;
+        this.scanned[slot] = scanned;
+        flags[slot] = (byte) ((result ? RESULT : 0) | (hitFailure ? HIT_FAILURE : 0)
+                              | (passedPredicateBefore ? PASSED_PREDICATE_BEFORE : 0)
+                              | (passedPredicateAfter ? PASSED_PREDICATE_AFTER : 0));
+    }
+
+    void clear() {
+        Arrays.fill(startTokens, null);
+        Arrays.fill(endTokens, null);
+    }
+}
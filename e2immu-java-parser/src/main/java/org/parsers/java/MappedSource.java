@@ -0,0 +1,270 @@
+package org.parsers.java;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.nio.charset.StandardCharsets.*;
+
+/**
+ * Input mode that memory-maps a source file and exposes its content as a read-only CharSequence, without
+ * an intermediate byte[] or a UTF-16 copy of the content:
+ * <p>
+ * <code>new JavaParser(path.toString(), MappedSource.open(path, null))</code>
+ * <p>
+ * or, in a parallel scan, {@code ParallelScan.Content.mapped(path, null)}.
+ * <p>
+ * Files in US-ASCII, or in Latin-1 when that charset is given explicitly, are read one byte per char.
+ * UTF-8 files are validated once; an index of the byte offset of every 64th char then gives random access,
+ * and a cursor makes the lexer's sequential access cheap.
+ * Other charsets, byte order marks other than UTF-8's, and malformed UTF-8 fall back to
+ * {@link TokenSource#stringFromBytes(byte[], Charset)}.
+ * <p>
+ * When the content needs no munging (no tabs, carriage returns or unicode escapes, and a final line terminator),
+ * the token source keeps this view as its content. The file must not change while it is in use.
+ */
+public final class MappedSource {
+
+    private MappedSource() {
+    }
+
+    public static CharSequence open(Path path, Charset charset) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) return "";
+            if (size > Integer.MAX_VALUE) throw new IOException("File too large: " + path);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        return view(buffer, charset);
+    }
+
+    static CharSequence view(ByteBuffer buffer, Charset charset) throws IOException {
+        int start = 0;
+        int length = buffer.limit();
+        if (charset == null) {
+            if (length >= 3 && (buffer.get(0) & 0xFF) == 0xEF && (buffer.get(1) & 0xFF) == 0xBB
+                && (buffer.get(2) & 0xFF) == 0xBF) {
+                start = 3;
+            } else if (length >= 2 && (buffer.get(0) & 0xFF) >= 0xFE || length >= 4 && buffer.get(0) == 0
+                                                                    && buffer.get(1) == 0) {
+                return decode(buffer, null); // UTF-16 or UTF-32 byte order mark
+            }
+            charset = UTF_8;
+        }
+        ByteBuffer content = buffer.slice(start, length - start);
+        // the UTF-8 view encodes positions as twice the byte offset
+        if (content.limit() > Integer.MAX_VALUE / 2) return decode(buffer, charset);
+        if (ISO_8859_1.equals(charset)) {
+            return new ByteView(content);
+        }
+        if (UTF_8.equals(charset) || US_ASCII.equals(charset)) {
+            int chars = Utf8View.countChars(content);
+            if (chars == content.limit()) return new ByteView(content);
+            if (chars >= 0 && UTF_8.equals(charset)) return new Utf8View(content, chars);
+        }
+        return decode(buffer, charset);
+    }
+
+    private static String decode(ByteBuffer buffer, Charset charset) throws IOException {
+        byte[] bytes = new byte[buffer.limit()];
+        buffer.get(0, bytes);
+        return TokenSource.stringFromBytes(bytes, charset);
+    }
+
+    static boolean isImmutable(CharSequence charSequence) {
+        return charSequence instanceof String || charSequence instanceof ByteView || charSequence instanceof Utf8View;
+    }
+
+    /*
+    one byte per char: US-ASCII, or Latin-1
+     */
+    private static final class ByteView implements CharSequence {
+        private final ByteBuffer bytes;
+
+        ByteView(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int length() {
+            return bytes.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes.get(index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            byte[] b = new byte[end - start];
+            bytes.get(start, b);
+            return new String(b, ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+    }
+
+    /*
+    Positions in the UTF-8 view are encoded as 2 * byteOffset, plus 1 when at the low surrogate of a 4-byte sequence.
+     */
+    private static final class Utf8View implements CharSequence {
+        private static final int BLOCK_SHIFT = 6;
+
+        private final ByteBuffer bytes;
+        private final int length;
+        // position of every 64th char
+        private final int[] blockPositions;
+        private static final VarHandle CURSOR;
+
+        static {
+            try {
+                CURSOR = MethodHandles.lookup().findVarHandle(Utf8View.class, "cursor", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        // last char index accessed (high 32 bits) and its position (low 32 bits), in a single field so that
+        // a reader never sees the index of one access combined with the position of another.
+        // Accessed in opaque mode only: reads and writes of the long do not tear when the view is shared between
+        // threads, but unlike volatile, a write in charAt costs no fence. A stale cursor is still correct, only less useful.
+        private long cursor;
+
+        Utf8View(ByteBuffer bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+            blockPositions = new int[(length >> BLOCK_SHIFT) + 1];
+            int position = 0;
+            for (int i = 0; i < length; i++) {
+                if ((i & ((1 << BLOCK_SHIFT) - 1)) == 0) blockPositions[i >> BLOCK_SHIFT] = position;
+                position = next(position);
+            }
+        }
+
+        /*
+        number of chars (UTF-16 code units) in valid UTF-8 content; -1 when the content is not valid UTF-8
+         */
+        static int countChars(ByteBuffer bytes) {
+            int limit = bytes.limit();
+            int chars = 0;
+            int i = 0;
+            while (i < limit) {
+                int b0 = bytes.get(i) & 0xFF;
+                if (b0 < 0x80) {
+                    i++;
+                    chars++;
+                    continue;
+                }
+                int n;
+                int min2 = 0x80;
+                int max2 = 0xBF;
+                if (b0 >= 0xC2 && b0 <= 0xDF) {
+                    n = 2;
+                } else if (b0 >= 0xE0 && b0 <= 0xEF) {
+                    n = 3;
+                    if (b0 == 0xE0) min2 = 0xA0; // overlong
+                    if (b0 == 0xED) max2 = 0x9F; // surrogates
+                } else if (b0 >= 0xF0 && b0 <= 0xF4) {
+                    n = 4;
+                    if (b0 == 0xF0) min2 = 0x90; // overlong
+                    if (b0 == 0xF4) max2 = 0x8F; // beyond U+10FFFF
+                } else {
+                    return -1;
+                }
+                if (i + n > limit) return -1;
+                int b1 = bytes.get(i + 1) & 0xFF;
+                if (b1 < min2 || b1 > max2) return -1;
+                for (int k = 2; k < n; k++) {
+                    if ((bytes.get(i + k) & 0xC0) != 0x80) return -1;
+                }
+                i += n;
+                chars += n == 4 ? 2 : 1;
+            }
+            return chars;
+        }
+
+        private int next(int position) {
+            int offset = position >> 1;
+            int b0 = bytes.get(offset) & 0xFF;
+            if (b0 < 0x80) return position + 2;
+            if (b0 < 0xE0) return position + 4;
+            if (b0 < 0xF0) return position + 6;
+            return (position & 1) == 0 ? position + 1 : position + 7;
+        }
+
+        private char decode(int position) {
+            int offset = position >> 1;
+            int b0 = bytes.get(offset) & 0xFF;
+            if (b0 < 0x80) return (char) b0;
+            int b1 = bytes.get(offset + 1) & 0x3F;
+            if (b0 < 0xE0) return (char) (((b0 & 0x1F) << 6) | b1);
+            int b2 = bytes.get(offset + 2) & 0x3F;
+            if (b0 < 0xF0) return (char) (((b0 & 0x0F) << 12) | (b1 << 6) | b2);
+            int b3 = bytes.get(offset + 3) & 0x3F;
+            int codePoint = ((b0 & 0x07) << 18) | (b1 << 12) | (b2 << 6) | b3;
+            return (position & 1) == 0 ? Character.highSurrogate(codePoint) : Character.lowSurrogate(codePoint);
+        }
+
+        private int position(int index, long cursor) {
+            int cursorIndex = (int) (cursor >>> 32);
+            int from;
+            int position;
+            if (index >= cursorIndex && index - cursorIndex < (1 << BLOCK_SHIFT)) {
+                from = cursorIndex;
+                position = (int) cursor;
+            } else {
+                from = index & ~((1 << BLOCK_SHIFT) - 1);
+                position = blockPositions[index >> BLOCK_SHIFT];
+            }
+            for (int i = from; i < index; i++) {
+                position = next(position);
+            }
+            return position;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+            }
+            int position = position(index, (long) CURSOR.getOpaque(this));
+            CURSOR.setOpaque(this, ((long) index << 32) | (position & 0xFFFFFFFFL));
+            return decode(position);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length "
+                                                    + length);
+            }
+            char[] chars = new char[end - start];
+            int position = position(start, (long) CURSOR.getOpaque(this));
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = decode(position);
+                if (i < chars.length - 1) position = next(position);
+            }
+            return new String(chars);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length).toString();
+        }
+    }
+}
@@ -4,6 +4,9 @@ package org.parsers.java;
 import java.io.PrintStream;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.function.Predicate;
 
@@ -786,36 +789,56 @@ public interface Node extends List<Node> {
 
 
     static abstract public class Visitor {
-        private static Map<Class<? extends Node.Visitor>, Map<Class<? extends Node>, Method>> mapLookup;
+        // per visitor class, the handlers found for each node class; ClassValue and ConcurrentHashMap are lock-free
+        // on the read path
+        private static final ClassValue<Map<Class<? extends Node>, Handler>> handlerLookup = new ClassValue<>() {
+            @Override
+            protected Map<Class<? extends Node>, Handler> computeValue(Class<?> visitorClass) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+        private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Visitor.class, Node.class);
+        // the handler for node classes without visit method: a virtual call to recurse(Node)
+        private static final MethodHandle RECURSE;
         protected static final Method DUMMY_METHOD;
         static {
             try {
-                // Use this just to represent no method found, since ConcurrentHashMap cannot contain nulls
+                // Use this just to represent no method found
                 DUMMY_METHOD = Object.class.getMethod("toString");
+                RECURSE = MethodHandles.lookup().findVirtual(Visitor.class, "recurse",
+                        MethodType.methodType(void.class, Node.class));
             } catch (Exception e) {
                 // Never happens anyway.
                 throw new RuntimeException(e);
             }
-            mapLookup = Collections.synchronizedMap(new HashMap<Class<? extends Node.Visitor>, Map<Class<? extends Node>, Method>>());
-        }
-        private Map<Class<? extends Node>, Method> methodCache;
-        {
-            this.methodCache = mapLookup.get(this.getClass());
-            if (methodCache == null) {
-                methodCache = new ConcurrentHashMap<Class<? extends Node>, Method>();
-                mapLookup.put(this.getClass(), methodCache);
-            }
         }
+        private final Map<Class<? extends Node>, Handler> handlerCache = handlerLookup.get(this.getClass());
         protected boolean visitUnparsedTokens;
 
+        // the visit method found for a node class (DUMMY_METHOD if there is none), and the handle that invokes it
+        private record Handler(Method method, MethodHandle handle) {
+        }
+
         protected final Method getVisitMethod(Node node) {
-            Class<? extends Node> nodeClass = node.getClass();
-            Method method = methodCache.get(nodeClass);
-            if (method == null) {
-                method = getVisitMethodImpl(nodeClass);
-                methodCache.put(nodeClass, method);
+            return getHandler(node.getClass()).method();
+        }
+
+        private Handler getHandler(Class<? extends Node> nodeClass) {
+            Handler handler = handlerCache.get(nodeClass);
+            if (handler == null) {
+                Method method = getVisitMethodImpl(nodeClass);
+                if (method == DUMMY_METHOD) {
+                    handler = new Handler(method, RECURSE);
+                } else try {
+                    // with the accessible flag set, unreflect does not depend on readability of the visitor's module
+                    method.trySetAccessible();
+                    handler = new Handler(method, MethodHandles.lookup().unreflect(method).asType(HANDLER_TYPE));
+                } catch (IllegalAccessException iae) {
+                    throw new RuntimeException(iae);
+                }
+                handlerCache.put(nodeClass, handler);
             }
-            return method;
+            return handler;
         }
 
         // Find handler method for this node type. If there is none,
@@ -845,25 +868,19 @@ public interface Node extends List<Node> {
         }
 
         /**
-        * Tries to invoke (via reflection) the appropriate visit(...) method
-        * defined in a subclass. If there is none, it just calls the recurse() routine.
+        * Invokes the appropriate visit(...) method defined in a subclass, through a method handle
+        * that is looked up (via reflection) once per visitor class and node class.
+        * If there is none, it just calls the recurse() routine.
         * @param node the Node to "visit"
         */
         public void visit(Node node) {
             if (node == null) return;
-            Method visitMethod = getVisitMethod(node);
-            if (visitMethod == DUMMY_METHOD) {
-                recurse(node);
-            } else try {
-                visitMethod.invoke(this, node);
-            } catch (InvocationTargetException ite) {
-                Throwable cause = ite.getCause();
-                if (cause instanceof RuntimeException) {
-                    throw(RuntimeException) cause;
-                }
-                throw new RuntimeException(ite);
-            } catch (IllegalAccessException iae) {
-                throw new RuntimeException(iae);
+            try {
+                getHandler(node.getClass()).handle().invokeExact(this, node);
+            } catch (RuntimeException re) {
+                throw re;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
             }
         }
 
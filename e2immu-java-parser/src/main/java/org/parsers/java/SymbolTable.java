@@ -0,0 +1,115 @@
+package org.parsers.java;
+
+/**
+ * Concurrent table of canonical identifier strings, to be shared by all token sources of one run,
+ * see {@link TokenSource#setSymbolTable(SymbolTable)}.
+ * <p>
+ * Lookups compare against the content of the token source directly; a new String is only created the first time
+ * a symbol is seen. Identical names then share a single instance, and hash codes are computed once.
+ */
+public final class SymbolTable {
+    private static final int STRIPE_BITS = 4;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final int INITIAL_CAPACITY = 64; // per stripe, power of 2
+
+    /*
+    The symbols are spread over stripes by their String hash code, which can be computed from a range of the input
+    without creating a String. Each stripe is an open-addressing table with linear probing, keyed by the int hash
+    and the content: lookups do not box, and do not lock.
+     */
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public SymbolTable() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    public String intern(CharSequence input, int beginOffset, int endOffset) {
+        int hash = hashCode(input, beginOffset, endOffset);
+        int spread = hash ^ (hash >>> 16);
+        Stripe stripe = stripes[spread & (STRIPES - 1)];
+        String symbol = find(stripe.table, spread, hash, input, beginOffset, endOffset);
+        return symbol != null ? symbol : stripe.add(spread, hash, input, beginOffset, endOffset);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) size += stripe.size();
+        return size;
+    }
+
+    /*
+    Only add() writes, under the lock of the stripe. A reader without the lock may see a table that misses symbols
+    being added; it then goes to add(), which looks again under the lock. Strings are immutable, so a symbol that
+    is seen, is seen complete.
+     */
+    private static final class Stripe {
+        private volatile String[] table = new String[INITIAL_CAPACITY];
+        private int size;
+
+        synchronized String add(int spread, int hash, CharSequence input, int beginOffset, int endOffset) {
+            String[] t = table;
+            String symbol = find(t, spread, hash, input, beginOffset, endOffset);
+            if (symbol != null) return symbol;
+            // keep the load factor at most 1/2
+            if (2 * (size + 1) > t.length) t = grow(t);
+            String text = input.subSequence(beginOffset, endOffset).toString();
+            put(t, spread, text);
+            size++;
+            table = t;
+            return text;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private static String[] grow(String[] t) {
+            String[] result = new String[2 * t.length];
+            for (String s : t) {
+                if (s != null) {
+                    int hash = s.hashCode();
+                    put(result, hash ^ (hash >>> 16), s);
+                }
+            }
+            return result;
+        }
+
+        private static void put(String[] t, int spread, String s) {
+            int mask = t.length - 1;
+            int i = index(spread, mask);
+            while (t[i] != null) i = (i + 1) & mask;
+            t[i] = s;
+        }
+    }
+
+    // the low bits of spread select the stripe; use the others within the stripe
+    private static int index(int spread, int mask) {
+        return (spread >>> STRIPE_BITS) & mask;
+    }
+
+    private static String find(String[] t, int spread, int hash, CharSequence input, int beginOffset, int endOffset) {
+        int mask = t.length - 1;
+        int length = endOffset - beginOffset;
+        for (int i = index(spread, mask); ; i = (i + 1) & mask) {
+            String s = t[i];
+            if (s == null) return null;
+            if (s.hashCode() == hash && s.length() == length && contentEquals(s, input, beginOffset)) return s;
+        }
+    }
+
+    // same result as input.subSequence(beginOffset, endOffset).toString().hashCode()
+    private static int hashCode(CharSequence input, int beginOffset, int endOffset) {
+        int h = 0;
+        for (int i = beginOffset; i < endOffset; i++) {
+            h = 31 * h + input.charAt(i);
+        }
+        return h;
+    }
+
+    private static boolean contentEquals(String s, CharSequence input, int beginOffset) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) != input.charAt(beginOffset + i)) return false;
+        }
+        return true;
+    }
+}
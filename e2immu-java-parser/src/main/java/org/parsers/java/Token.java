@@ -242,7 +242,23 @@ public class Token implements CharSequence, Node.TerminalNode {
         TokenSource ts = getTokenSource();
         int beginOffset = getBeginOffset();
         int endOffset = getEndOffset();
-        return ts == null || beginOffset <= 0 && endOffset <= 0 ? null : ts.getText(beginOffset, endOffset);
+        if (ts == null || beginOffset <= 0 && endOffset <= 0) return null;
+        // keywords, operators and delimiters: the literal string is the canonical instance
+        String literal = type.getLiteralString();
+        if (literal != null && matches(ts, beginOffset, endOffset, literal)) return literal;
+        SymbolTable symbolTable = ts.getSymbolTable();
+        if (symbolTable != null && type == TokenType.IDENTIFIER) {
+            return symbolTable.intern(ts, beginOffset, endOffset);
+        }
+        return ts.getText(beginOffset, endOffset);
+    }
+
+    private static boolean matches(CharSequence input, int beginOffset, int endOffset, String literal) {
+        if (literal.length() != endOffset - beginOffset) return false;
+        for (int i = 0; i < literal.length(); i++) {
+            if (literal.charAt(i) != input.charAt(beginOffset + i)) return false;
+        }
+        return true;
     }
 
     protected Token() {
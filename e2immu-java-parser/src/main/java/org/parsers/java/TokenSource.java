@@ -28,22 +28,21 @@ abstract public class TokenSource implements CharSequence {
         return tabSize;
     }
 
-    // A dummy token value that we use to indicate that a token location is skipped.
-    private static final Node.TerminalNode SKIPPED = new Token();
-    // Just a very simple, bloody minded approach, just store the
-    // token objects in a table where the offsets are the code unit
-    // positions in the content buffer. If the token at a given offset is
-    // the dummy or marker type IGNORED, then the location is skipped via
-    // whatever preprocessor logic.
-    private Node.TerminalNode[] tokenLocationTable;
-    // A BitSet that stores where the tokens are located.
-    private BitSet tokenOffsets;
+    // The cached tokens, sorted by begin offset: a sparse index sized by the number of tokens rather than
+    // by the length of the content. Skipped tokens (whitespace) have no entry.
+    private int[] tokenOffsets;
+    private Node.TerminalNode[] cachedTokens;
+    private int numCachedTokens;
+    // the result of the previous lookup; lookups are mostly for the neighbours of the previous token
+    private int lastTokenIndex;
     //  A Bitset that stores the line numbers that
     // contain either hard tabs or extended (beyond 0xFFFF) unicode
     // characters.
-    private final BitSet needToCalculateColumns = new BitSet();
+    private final BitSet needToCalculateColumns;
     // A list of offsets of the beginning of lines
     private int[] lineOffsets;
+    // the line of the previous lookup, 0-based; lookups are mostly for the same line, or the next one
+    private int lastLine;
     // Munged content, possibly replace unicode escapes, tabs, or CRLF with LF.
     private CharSequence content;
     // The starting line and column, usually 1,1
@@ -52,6 +51,8 @@ abstract public class TokenSource implements CharSequence {
     private int startingLine;
     private int startingColumn;
     private int extraIndent;
+    // optional, canonical instances for the text of identifiers
+    private SymbolTable symbolTable;
 
     /**
     * Set the starting line/column for location reporting.
@@ -70,19 +71,73 @@ abstract public class TokenSource implements CharSequence {
         return this.extraIndent;
     }
 
+    /**
+    * Set a symbol table, typically shared by all token sources of a run, so that the text of identifiers
+    * is only materialized once per distinct name.
+    */
+    public void setSymbolTable(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
     protected TokenSource(String inputSource, CharSequence input, int startingLine, int startingColumn, int tabSize, boolean preserveTabs, boolean preserveLineEndings, boolean javaUnicodeEscape, String terminatingString) {
         this.inputSource = inputSource;
         this.tabSize = tabSize;
         this.startingLine = startingLine;
         this.startingColumn = startingColumn;
         this.content = mungeContent(input, preserveTabs, tabSize, preserveLineEndings, javaUnicodeEscape, terminatingString);
+        this.needToCalculateColumns = new BitSet();
         createLineOffsetsTable();
         createTokenLocationTable();
     }
 
+    /**
+    * A token source over the same content as the given one, sharing its content and line table, but with
+    * a token cache of its own, initially empty. Tokens from both have the same offsets, lines and columns.
+    */
+    protected TokenSource(TokenSource source) {
+        this.inputSource = source.inputSource;
+        this.tabSize = source.tabSize;
+        this.startingLine = source.startingLine;
+        this.startingColumn = source.startingColumn;
+        this.extraIndent = source.extraIndent;
+        this.symbolTable = source.symbolTable;
+        this.content = source.content;
+        this.needToCalculateColumns = source.needToCalculateColumns;
+        this.lineOffsets = source.lineOffsets;
+        tokenOffsets = new int[16];
+        cachedTokens = new Node.TerminalNode[16];
+    }
+
+    /**
+    * Rebinds this token source to new input, keeping its internal buffers. Tokens and nodes obtained
+    * from the previous input must no longer be used afterwards, as they refer to this token source for their text.
+    */
+    protected void rebind(String inputSource, CharSequence input, int startingLine, int startingColumn, boolean preserveTabs, boolean preserveLineEndings, boolean javaUnicodeEscape, String terminatingString) {
+        this.inputSource = inputSource;
+        this.startingLine = startingLine;
+        this.startingColumn = startingColumn;
+        this.extraIndent = 0;
+        this.content = mungeContent(input, preserveTabs, tabSize, preserveLineEndings, javaUnicodeEscape, terminatingString);
+        needToCalculateColumns.clear();
+        createLineOffsetsTable();
+        lastLine = 0;
+        // keep the arrays of the token index, only forget the cached tokens
+        Arrays.fill(cachedTokens, 0, numCachedTokens, null);
+        numCachedTokens = 0;
+        lastTokenIndex = 0;
+    }
+
     // Icky method to handle annoying stuff. Might make this public later if it is
     // needed elsewhere
-    static protected String mungeContent(CharSequence content, boolean preserveTabs, int tabSize, boolean preserveLines, boolean javaUnicodeEscape, String terminatingString) {
+    static protected CharSequence mungeContent(CharSequence content, boolean preserveTabs, int tabSize, boolean preserveLines, boolean javaUnicodeEscape, String terminatingString) {
+        // immutable content that needs no changes is kept as is, rather than copied
+        if (MappedSource.isImmutable(content) && !needsMunging(content, preserveTabs, preserveLines, javaUnicodeEscape, terminatingString)) {
+            return content;
+        }
         if (preserveTabs && preserveLines && !javaUnicodeEscape) {
             if (!terminatingString.isEmpty()) {
                 if (content.length() == 0) {
@@ -160,16 +215,57 @@ abstract public class TokenSource implements CharSequence {
         return buf.toString();
     }
 
+    private static boolean needsMunging(CharSequence content, boolean preserveTabs, boolean preserveLines, boolean javaUnicodeEscape, String terminatingString) {
+        int length = content.length();
+        if (!terminatingString.isEmpty()) {
+            int terminatorLength = terminatingString.length();
+            if (length < terminatorLength) return true;
+            for (int i = 0; i < terminatorLength; i++) {
+                if (content.charAt(length - terminatorLength + i) != terminatingString.charAt(i)) return true;
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            char ch = content.charAt(i);
+            if (ch == '\t' && !preserveTabs || ch == '\r' && !preserveLines) return true;
+            if (ch == '\\' && javaUnicodeEscape && i + 1 < length && content.charAt(i + 1) == 'u') return true;
+        }
+        return false;
+    }
+
     private void createTokenLocationTable() {
-        int size = content.length() + 1;
-        tokenLocationTable = new Node.TerminalNode[size];
-        tokenOffsets = new BitSet(size);
+        // a rough estimate of the number of non-whitespace tokens; the arrays grow when needed
+        int capacity = Math.max(16, content.length() / 8);
+        tokenOffsets = new int[capacity];
+        cachedTokens = new Node.TerminalNode[capacity];
     }
 
-    protected final void skipTokens(int begin, int end) {
-        for (int i = begin; i < end; i++) {
-            tokenLocationTable[i] = SKIPPED;
+    /*
+    index of the first cached token with a begin offset >= offset; numCachedTokens if there is none
+     */
+    private int cachedTokenIndex(int offset) {
+        int n = numCachedTokens;
+        // tokens are mostly cached and looked up at the end
+        if (n == 0 || tokenOffsets[n - 1] < offset) return n;
+        for (int i = Math.max(0, lastTokenIndex - 1), max = Math.min(n - 1, lastTokenIndex + 2); i <= max; i++) {
+            if (tokenOffsets[i] >= offset && (i == 0 || tokenOffsets[i - 1] < offset)) {
+                lastTokenIndex = i;
+                return i;
+            }
         }
+        int low = 0;
+        int high = n - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tokenOffsets[mid] < offset) low = mid + 1;
+            else high = mid;
+        }
+        lastTokenIndex = low;
+        return low;
+    }
+
+    // the (munged) content itself, for scanners that want to avoid the indirection or use String's intrinsics
+    final CharSequence content() {
+        return content;
     }
 
     public final char charAt(int pos) {
@@ -190,36 +286,79 @@ abstract public class TokenSource implements CharSequence {
 
     public void cacheToken(Node.TerminalNode tok) {
         int beginOffset = tok.getBeginOffset();
+        int index = cachedTokenIndex(beginOffset);
+        boolean present = index < numCachedTokens && tokenOffsets[index] == beginOffset;
         // If the token is already cached, we just jump out. (I think this is okay...)
-        if (tokenLocationTable[beginOffset] == tok) return;
-        int endOffset = tok.getEndOffset();
-        tokenOffsets.set(beginOffset);
-        if (endOffset > beginOffset + 1) {
-            // This handles some weird usage cases where token locations
-            // have been adjusted.
-            tokenOffsets.clear(beginOffset + 1, endOffset);
-            for (int i = beginOffset + 1; i < endOffset; i++) {
-                tokenLocationTable[i] = null;
+        if (present && cachedTokens[index] == tok) return;
+        if (!present) {
+            if (numCachedTokens == tokenOffsets.length) {
+                int newCapacity = 2 * numCachedTokens;
+                tokenOffsets = Arrays.copyOf(tokenOffsets, newCapacity);
+                cachedTokens = Arrays.copyOf(cachedTokens, newCapacity);
+            }
+            int toMove = numCachedTokens - index;
+            if (toMove > 0) {
+                System.arraycopy(tokenOffsets, index, tokenOffsets, index + 1, toMove);
+                System.arraycopy(cachedTokens, index, cachedTokens, index + 1, toMove);
             }
+            tokenOffsets[index] = beginOffset;
+            ++numCachedTokens;
         }
-        tokenLocationTable[beginOffset] = tok;
+        cachedTokens[index] = tok;
+        // This handles some weird usage cases where token locations
+        // have been adjusted: drop the cached tokens that start inside this one.
+        int endOffset = tok.getEndOffset();
+        int end = index + 1;
+        while (end < numCachedTokens && tokenOffsets[end] < endOffset) end++;
+        if (end > index + 1) removeCachedTokens(index + 1, end);
+    }
+
+    private void removeCachedTokens(int from, int to) {
+        int toMove = numCachedTokens - to;
+        System.arraycopy(tokenOffsets, to, tokenOffsets, from, toMove);
+        System.arraycopy(cachedTokens, to, cachedTokens, from, toMove);
+        int newSize = from + toMove;
+        Arrays.fill(cachedTokens, newSize, numCachedTokens, null);
+        numCachedTokens = newSize;
+    }
+
+    /**
+    * Shrinks the arrays of the token cache to the cached tokens, once no more tokens are expected: their
+    * capacity is estimated from the length of the content, and grows by doubling.
+    */
+    public void trimTokenCache() {
+        int capacity = Math.max(16, numCachedTokens);
+        if (capacity < tokenOffsets.length) {
+            tokenOffsets = Arrays.copyOf(tokenOffsets, capacity);
+            cachedTokens = Arrays.copyOf(cachedTokens, capacity);
+        }
+    }
+
+    /**
+    * Drops the cached tokens that begin in the given range of offsets. Lookups of the next or previous
+    * cached token then skip the range.
+    */
+    public void uncacheTokens(int beginOffset, int endOffset) {
+        int from = cachedTokenIndex(beginOffset);
+        int to = cachedTokenIndex(endOffset);
+        if (from < to) removeCachedTokens(from, to);
     }
 
     public void uncacheTokens(Node.TerminalNode lastToken) {
-        int endOffset = lastToken.getEndOffset();
-        if (endOffset < tokenOffsets.length()) {
-            tokenOffsets.clear(lastToken.getEndOffset(), tokenOffsets.length());
+        int index = cachedTokenIndex(lastToken.getEndOffset());
+        if (index < numCachedTokens) {
+            removeCachedTokens(index, numCachedTokens);
         }
     }
 
     public Node.TerminalNode nextCachedToken(int offset) {
-        int nextOffset = tokenOffsets.nextSetBit(offset);
-        return nextOffset != -1 ? tokenLocationTable[nextOffset] : null;
+        int index = cachedTokenIndex(offset);
+        return index < numCachedTokens ? cachedTokens[index] : null;
     }
 
     public Node.TerminalNode previousCachedToken(int offset) {
-        int prevOffset = tokenOffsets.previousSetBit(offset - 1);
-        return prevOffset == -1 ? null : tokenLocationTable[prevOffset];
+        int index = cachedTokenIndex(offset) - 1;
+        return index < 0 ? null : cachedTokens[index];
     }
 
     // Just use the canned binary search to check whether the char
@@ -267,11 +406,21 @@ abstract public class TokenSource implements CharSequence {
             }
             return startingLine + lineOffsets.length - 1;
         }
-        int bsearchResult = Arrays.binarySearch(lineOffsets, pos);
-        if (bsearchResult >= 0) {
-            return Math.max(startingLine, startingLine + bsearchResult);
+        int line = lastLine;
+        int n = lineOffsets.length;
+        if (line < n && lineOffsets[line] <= pos) {
+            if (line + 1 == n || pos < lineOffsets[line + 1]) {
+                return startingLine + line;
+            }
+            if (line + 2 == n || pos < lineOffsets[line + 2]) {
+                lastLine = line + 1;
+                return startingLine + line + 1;
+            }
         }
-        return Math.max(startingLine, startingLine - (bsearchResult + 2));
+        int bsearchResult = Arrays.binarySearch(lineOffsets, pos);
+        line = bsearchResult >= 0 ? bsearchResult : -(bsearchResult + 2);
+        if (line >= 0) lastLine = line;
+        return Math.max(startingLine, startingLine + line);
     }
 
     private void createLineOffsetsTable() {
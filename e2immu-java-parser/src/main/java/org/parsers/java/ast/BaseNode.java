@@ -4,7 +4,9 @@ package org.parsers.java.ast;
 import org.parsers.java.*;
 import static org.parsers.java.Token.TokenType.*;
 import java.util.List;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Collection;
@@ -31,39 +33,27 @@ public class BaseNode implements Node {
         this.tokenSource = (JavaLexer) tokenSource;
     }
 
-    private static Class<? extends List<Node>> listClass;
-
     /**
-    * Sets the List class that is used to store child nodes. By default,
-    * this is java.util.ArrayList. There is probably very little reason
-    * to ever use anything else, though you could use this method
-    * to replace this with LinkedList or your own java.util.List implementation even.
-    * @param listClass the #java.util.List implementation to use internally
-    * for the child nodes. By default #java.util.ArrayList is used.
+    * Child nodes are stored in an array, which is trimmed to its exact size when the node is closed.
+    * The List class can no longer be chosen; this method has no effect.
+    * @param listClass ignored
     */
+    @Deprecated
     public static void setListClass(Class<? extends List<Node>> listClass) {
-        BaseNode.listClass = listClass;
     }
 
-    private List<Node> newList() {
-        if (listClass == null) {
-            return new ArrayList<>();
-        }
-        try {
-            return listClass.getDeclaredConstructor().newInstance();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-    }
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final int INITIAL_CAPACITY = 4;
 
     /**
     * the parent node
     */
     private Node parent;
     /**
-    * the child nodes
+    * the child nodes, in the first numChildren positions of the array
     */
-    private final List<Node> children = newList();
+    private Node[] children = NO_CHILDREN;
+    private int numChildren;
     private int beginOffset, endOffset;
     private boolean unparsed;
 
@@ -83,28 +73,66 @@ public class BaseNode implements Node {
         return parent;
     }
 
+    private void ensureCapacity(int capacity) {
+        if (capacity > children.length) {
+            int newCapacity = Math.max(capacity, children.length == 0 ? INITIAL_CAPACITY : 2 * children.length);
+            children = Arrays.copyOf(children, newCapacity);
+        }
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= numChildren) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + numChildren);
+        }
+    }
+
+    /**
+    * Trims the child array to its exact size, now that all the child nodes have been added.
+    */
+    @Override
+    public void close() {
+        if (numChildren < children.length) {
+            children = numChildren == 0 ? NO_CHILDREN : Arrays.copyOf(children, numChildren);
+        }
+    }
+
     public boolean add(Node n) {
         n.setParent(this);
-        return children.add(n);
+        ensureCapacity(numChildren + 1);
+        children[numChildren++] = n;
+        return true;
     }
 
     public void add(int i, Node n) {
-        children.add(i, n);
+        if (i < 0 || i > numChildren) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + numChildren);
+        }
+        ensureCapacity(numChildren + 1);
+        System.arraycopy(children, i, children, i + 1, numChildren - i);
+        children[i] = n;
+        ++numChildren;
         n.setParent(this);
     }
 
     public Node get(int i) {
-        return children.get(i);
+        checkIndex(i);
+        return children[i];
     }
 
     public Node set(int i, Node n) {
-        children.get(i).setParent(null);
+        checkIndex(i);
+        Node previous = children[i];
+        previous.setParent(null);
         n.setParent(this);
-        return children.set(i, n);
+        children[i] = n;
+        return previous;
     }
 
     public Node remove(int i) {
-        Node n = children.remove(i);
+        checkIndex(i);
+        Node n = children[i];
+        System.arraycopy(children, i + 1, children, i, numChildren - i - 1);
+        children[--numChildren] = null;
         n.setParent(null);
         return n;
     }
@@ -112,22 +140,43 @@ public class BaseNode implements Node {
     public boolean remove(Object obj) {
         Node n = (Node) obj;
         n.setParent(null);
-        return children.remove(n);
+        for (int i = 0; i < numChildren; i++) {
+            if (n.equals(children[i])) {
+                System.arraycopy(children, i + 1, children, i, numChildren - i - 1);
+                children[--numChildren] = null;
+                return true;
+            }
+        }
+        return false;
     }
 
     public void clear() {
-        for (Node child : children) {
-            child.setParent(null);
+        for (int i = 0; i < numChildren; i++) {
+            children[i].setParent(null);
         }
-        children.clear();
+        children = NO_CHILDREN;
+        numChildren = 0;
     }
 
     public int size() {
-        return children.size();
+        return numChildren;
     }
 
+    /**
+    * @return an unmodifiable view of the child nodes
+    */
     public List<Node> children() {
-        return Collections.unmodifiableList(children);
+        return new AbstractList<>() {
+            @Override
+            public Node get(int index) {
+                return BaseNode.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return numChildren;
+            }
+        };
     }
 
     public int getBeginOffset() {
@@ -147,7 +196,7 @@ public class BaseNode implements Node {
     }
 
     public List<Node> subList(int from, int to) {
-        return children.subList(from, to);
+        return children().subList(from, to);
     }
 
     public List<Token> getRealTokens() {
@@ -155,25 +204,45 @@ public class BaseNode implements Node {
     }
 
     public boolean addAll(Collection<? extends Node> nodes) {
-        for (Node n : nodes)n.setParent(this);
-        return children.addAll(nodes);
+        return addAll(numChildren, nodes);
     }
 
     public boolean addAll(int i, Collection<? extends Node> nodes) {
-        for (Node n : nodes)n.setParent(this);
-        return children.addAll(i, nodes);
+        if (i < 0 || i > numChildren) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + numChildren);
+        }
+        Node[] added = nodes.toArray(NO_CHILDREN);
+        if (added.length == 0) return false;
+        for (Node n : added) n.setParent(this);
+        ensureCapacity(numChildren + added.length);
+        System.arraycopy(children, i, children, i + added.length, numChildren - i);
+        System.arraycopy(added, 0, children, i, added.length);
+        numChildren += added.length;
+        return true;
     }
 
     public boolean containsAll(Collection<?> nodes) {
-        return children.containsAll(nodes);
+        return children().containsAll(nodes);
     }
 
     public boolean retainAll(Collection<?> nodes) {
-        return children.containsAll(nodes);
+        return children().containsAll(nodes);
     }
 
     public boolean removeAll(Collection<?> nodes) {
-        return children.removeAll(nodes);
+        boolean changed = false;
+        int j = 0;
+        for (int i = 0; i < numChildren; i++) {
+            Node child = children[i];
+            if (nodes.contains(child)) {
+                changed = true;
+            } else {
+                children[j++] = child;
+            }
+        }
+        Arrays.fill(children, j, numChildren, null);
+        numChildren = j;
+        return changed;
     }
 
     public String toString() {
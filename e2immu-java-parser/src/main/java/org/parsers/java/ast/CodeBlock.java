@@ -5,11 +5,40 @@
 package org.parsers.java.ast;
 
 import org.parsers.java.*;
+import java.lang.ref.WeakReference;
 import java.util.*;
 import static org.parsers.java.Token.TokenType.*;
 
 
 public class CodeBlock extends BaseNode implements Statement {
+
+    private boolean skipped;
+    // the block parsed from this skipped one, see JavaParser.parseSkippedBlock
+    private volatile WeakReference<CodeBlock> parsed;
+
+    /**
+    * @return whether the contents of this block were skipped by the parser, see JavaParser.setSkipBlockContents
+    */
+    public boolean isSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(boolean skipped) {
+        this.skipped = skipped;
+    }
+
+    /**
+    * @return the block parsed from this skipped one, if it has been parsed and not yet garbage collected
+    */
+    public CodeBlock getParsed() {
+        WeakReference<CodeBlock> ref = parsed;
+        return ref == null ? null : ref.get();
+    }
+
+    public void setParsed(CodeBlock parsed) {
+        this.parsed = new WeakReference<>(parsed);
+    }
+
 }
 
 
@@ -314,6 +314,18 @@ public class CommonTestParse {
     protected record ParseResult(Context context, List<TypeInfo> types) {
     }
 
+    protected boolean anonymousTypeIndexFromPosition() {
+        return false;
+    }
+
+    protected boolean skipBlockContents() {
+        return false;
+    }
+
+    protected Parsers newParsers() {
+        return new Parsers(runtime, anonymousTypeIndexFromPosition());
+    }
+
     protected Context parseReturnContext(String input) {
         return parseReturnBoth(input, false, false).context;
     }
@@ -331,12 +343,14 @@ public class CommonTestParse {
         Supplier<JavaParser> parser = () -> {
             JavaParser p = new JavaParser(input);
             p.setParserTolerant(false);
+            p.setSkipBlockContents(skipBlockContents());
             return p;
         };
         CompiledTypesManager compiledTypesManager = new CompiledTypesManagerImpl();
         SourceTypeMapImpl stm = new SourceTypeMapImpl();
         TypeContextImpl typeContext = new TypeContextImpl(runtime, compiledTypesManager, stm, false);
-        Resolver resolver = new ResolverImpl(runtime.computeMethodOverrides(), new ParseHelperImpl(runtime), false);
+        ParseHelperImpl parseHelper = new ParseHelperImpl(runtime, newParsers());
+        Resolver resolver = new ResolverImpl(runtime.computeMethodOverrides(), parseHelper, false);
         Context rootContext = ContextImpl.create(runtime, failFastSummary, resolver, typeContext, detailedSources);
 
         ScanCompilationUnit scanCompilationUnit = new ScanCompilationUnit(failFastSummary, runtime);
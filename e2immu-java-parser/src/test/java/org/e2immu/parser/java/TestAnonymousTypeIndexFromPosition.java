@@ -0,0 +1,55 @@
+package org.e2immu.parser.java;
+
+import org.e2immu.language.cst.api.expression.ConstructorCall;
+import org.e2immu.language.cst.api.expression.Lambda;
+import org.e2immu.language.cst.api.info.MethodInfo;
+import org.e2immu.language.cst.api.info.TypeInfo;
+import org.e2immu.language.cst.api.statement.LocalVariableCreation;
+import org.e2immu.language.cst.api.statement.ReturnStatement;
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAnonymousTypeIndexFromPosition extends CommonTestParse {
+
+    @Override
+    protected boolean anonymousTypeIndexFromPosition() {
+        return true;
+    }
+
+    @Language("java")
+    private static final String INPUT = """
+            package a.b;
+            import java.util.function.Function;
+            class C {
+              Function<Integer, String> lambda() {
+                return i -> "x" + i;
+              }
+              public void anonymous(String s) {
+                Function<Integer,String> f = new Function<>() {
+                  @Override
+                  public String apply(Integer i) {
+                    return i+s;
+                  }
+                };
+              }
+            }
+            """;
+
+    @Test
+    public void test() {
+        TypeInfo typeInfo = parse(INPUT);
+        MethodInfo lambdaMethod = typeInfo.findUniqueMethod("lambda", 0);
+        if (lambdaMethod.methodBody().statements().getFirst() instanceof ReturnStatement rs
+            && rs.expression() instanceof Lambda lambda) {
+            assertEquals("a.b.C.$" + INPUT.indexOf("i ->") + ".apply(Integer)",
+                    lambda.methodInfo().fullyQualifiedName());
+        } else fail();
+        MethodInfo anonymousMethod = typeInfo.findUniqueMethod("anonymous", 1);
+        if (anonymousMethod.methodBody().statements().getFirst() instanceof LocalVariableCreation lvc
+            && lvc.localVariable().assignmentExpression() instanceof ConstructorCall cc) {
+            assertEquals("a.b.C.$" + INPUT.indexOf("{\n      @Override"), cc.anonymousClass().fullyQualifiedName());
+        } else fail();
+    }
+}
@@ -0,0 +1,45 @@
+package org.e2immu.parser.java;
+
+import org.junit.jupiter.api.Test;
+import org.parsers.java.JavaParser;
+import org.parsers.java.Node;
+import org.parsers.java.ast.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBaseNode {
+
+    @Test
+    public void testChildren() {
+        CompilationUnit cu = new JavaParser("package a.b; class X { int i; }").CompilationUnit();
+        PackageDeclaration pd = cu.firstChildOfType(PackageDeclaration.class);
+        assertEquals(3, pd.size());
+        List<Node> view = pd.children();
+        assertEquals("package", view.get(0).getSource());
+        assertEquals("a.b", view.get(1).getSource());
+        assertThrows(UnsupportedOperationException.class, () -> view.remove(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> pd.get(3));
+
+        Node semicolon = pd.remove(2);
+        assertNull(semicolon.getParent());
+        assertEquals(2, view.size(), "the view is live");
+        pd.add(0, semicolon);
+        assertSame(pd, semicolon.getParent());
+        assertSame(semicolon, pd.getFirstChild());
+        assertEquals(0, pd.indexOf(semicolon));
+
+        Node name = pd.get(2);
+        pd.set(2, semicolon);
+        assertNull(name.getParent());
+        assertTrue(pd.removeAll(List.of(semicolon)));
+        assertEquals(1, pd.size());
+        pd.addAll(List.of(name, semicolon));
+        assertEquals(List.of("package", "a.b", ";"), pd.children().stream().map(Node::getSource).toList());
+
+        pd.clear();
+        assertTrue(pd.isEmpty());
+        assertNull(name.getParent());
+    }
+}
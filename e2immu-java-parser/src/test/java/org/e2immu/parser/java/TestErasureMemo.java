@@ -0,0 +1,87 @@
+package org.e2immu.parser.java;
+
+import org.e2immu.language.cst.api.expression.Expression;
+import org.e2immu.language.cst.api.expression.MethodCall;
+import org.e2immu.language.cst.api.info.MethodInfo;
+import org.e2immu.language.cst.api.info.TypeInfo;
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestErasureMemo {
+
+    @Language("java")
+    private static final String INPUT = """
+            package a.b;
+            import java.util.function.Function;
+            class C {
+                static class Builder {
+                    Builder add(int i) { return this; }
+                    Builder add(String s) { return this; }
+                    Builder add(Builder b) { return this; }
+                    Builder add(Function<Integer, String> f) { return this; }
+                    C build() { return new C(); }
+                }
+                C make(int k) {
+                    return new Builder().add(k).add("x")
+                        .add(new Builder().add(k + 1).add(new Builder().add("y").add(i -> "z" + i)))
+                        .build();
+                }
+            }
+            """;
+
+    private static class Run extends CommonTestParse {
+        private final boolean erasureMemo;
+        private ParseExpression parseExpression;
+
+        Run(boolean erasureMemo) {
+            this.erasureMemo = erasureMemo;
+        }
+
+        @Override
+        protected Parsers newParsers() {
+            Parsers parsers = super.newParsers();
+            parseExpression = parsers.parseExpression();
+            parseExpression.setErasureMemo(erasureMemo);
+            return parsers;
+        }
+    }
+
+    @Test
+    public void test() {
+        Run plain = new Run(false);
+        Expression plainResult = make(plain.parse(INPUT));
+        assertEquals(0, plain.parseExpression.erasureMemoHits());
+
+        Run memo = new Run(true);
+        Expression memoResult = make(memo.parse(INPUT));
+        assertTrue(memo.parseExpression.erasureMemoHits() > 0);
+
+        assertEquals(plainResult.toString(), memoResult.toString());
+        assertEquals(methods(plainResult), methods(memoResult));
+    }
+
+    private static Expression make(TypeInfo typeInfo) {
+        MethodInfo make = typeInfo.findUniqueMethod("make", 1);
+        return make.methodBody().statements().getFirst().expression();
+    }
+
+    // the overloads chosen, outside-in
+    private static List<String> methods(Expression expression) {
+        List<String> list = new ArrayList<>();
+        methods(expression, list);
+        return list;
+    }
+
+    private static void methods(Expression expression, List<String> list) {
+        if (expression instanceof MethodCall mc) {
+            list.add(mc.methodInfo().fullyQualifiedName());
+            methods(mc.object(), list);
+            mc.parameterExpressions().forEach(e -> methods(e, list));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.e2immu.parser.java;
+
+import org.e2immu.language.cst.api.element.FingerPrint;
+import org.e2immu.language.inspection.api.resource.MD5FingerPrint;
+import org.e2immu.language.inspection.impl.parser.SummaryImpl;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestIncrementalScan extends CommonTestParse {
+
+    private static final String A = "package a; public class A { B b; }";
+    private static final String B = "package a; public class B { }";
+    private static final String B2 = "package a; public class B { int i; }";
+    private static final String C = "package c; public class C { /* not related */ }";
+
+    private static ParallelScan.Input input(String name, String content) {
+        try {
+            FingerPrint fingerPrint = MD5FingerPrint.compute(MessageDigest.getInstance("MD5"),
+                    content.getBytes(StandardCharsets.UTF_8));
+            return new ParallelScan.Input(URI.create("file:/" + name + ".java"), null, fingerPrint, () -> content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void test() {
+        IncrementalScan incrementalScan = new IncrementalScan(new ParallelScan(new SummaryImpl(true), runtime));
+        IncrementalScan.Result r1 = incrementalScan.scan(List.of(input("A", A), input("B", B), input("C", C)),
+                Map.of(), false);
+        assertEquals("reused 0, changed 3, affected 0, removed 0", r1.report().toString());
+        assertEquals(List.of(true, true, true), r1.mustParse());
+
+        IncrementalScan.Result r2 = incrementalScan.scan(List.of(input("A", A), input("B", B2), input("C", C)),
+                r1.entries(), false);
+        assertEquals("reused 1, changed 1, affected 1, removed 0", r2.report().toString());
+        assertEquals(List.of(URI.create("file:/C.java")), r2.report().reused());
+        assertEquals(List.of(URI.create("file:/A.java")), r2.report().affected());
+        assertEquals(List.of(true, true, false), r2.mustParse());
+        assertSame(r1.sourceTypes().get("c.C"), r2.sourceTypes().get("c.C"));
+        assertNotSame(r1.sourceTypes().get("a.A"), r2.sourceTypes().get("a.A"));
+
+        IncrementalScan.Result r3 = incrementalScan.scan(List.of(input("A", A), input("C", C)), r2.entries(), false);
+        assertEquals("reused 1, changed 0, affected 1, removed 1", r3.report().toString());
+        assertNull(r3.sourceTypes().get("a.B"));
+    }
+
+    @Test
+    public void testIdentifiers() {
+        assertEquals(Set.of("package", "a", "public", "class", "C", "not", "related"),
+                IncrementalScan.identifiers(C));
+    }
+}
@@ -0,0 +1,137 @@
+package org.e2immu.parser.java;
+
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.parsers.java.JavaLexer;
+import org.parsers.java.Token;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestJavaLexerDfa {
+
+    @Language("java")
+    private static final String INPUT = """
+            package a.b;
+            // single line comment
+            import java.util.*;
+            /* multi-line
+               comment */
+            public sealed class X<T extends List<Map<String, T>>> permits X.Y {
+                non-sealed class Y extends X<Integer> { }
+                public long parse(int i, String s) {
+                    int a = 0xFF_FF + 001 + 12 + 12L + 3_000;
+                    double d = .5 + 1.0e2d + 1f + 1.;
+                    String t = "abc\\t\\"" + "" + "é" + \"""
+                        text block
+                        \""";
+                    char c = 'x';
+                    a >>>= 2; a >>= 1; a <<= 3;
+                    var v = a >> 2 >>> 1;
+                    record R(int k) { }
+                    return a ^ i | a & ~i;
+                }
+            }
+            """;
+
+    @Test
+    public void test() {
+        List<String> nfa = tokens(INPUT, false);
+        List<String> dfa = tokens(INPUT, true);
+        assertEquals(nfa, dfa);
+    }
+
+    @Test
+    public void testComments() {
+        for (String input : List.of("/**/ a", "/*/ */ a", "/*** x **/ a", "a /* unterminated", "a // no newline",
+                "a //\n\n\t\f b", "/ * a", "a/b//c\n")) {
+            List<String> nfa = tokens(input, false);
+            List<String> dfa = tokens(input, true);
+            assertEquals(nfa, dfa, input);
+        }
+    }
+
+    /*
+    Wall-clock comparison of the lexer with and without the DFA fast path, on heavily commented sources: the files
+    of $JAVA_HOME/lib/src.zip in which comments make up at least half of the characters. Enabled by setting the
+    environment variable LEXER_DFA_BENCHMARK to the number of such files to lex, e.g. 1000.
+    After a check that both modes produce the same tokens, the files are lexed in 8 passes, alternating between
+    the modes; the fastest pass of each is reported.
+    Measured on the first 1000 such files of the JDK 21 sources (16.2M chars), 1 CPU: nfa 998 ms, dfa 233 ms.
+     */
+    @Test
+    @EnabledIfEnvironmentVariable(named = "LEXER_DFA_BENCHMARK", matches = "\\d+")
+    public void benchmark() throws IOException {
+        int maxFiles = Integer.parseInt(System.getenv("LEXER_DFA_BENCHMARK"));
+        List<String> sources = new ArrayList<>();
+        long chars = 0;
+        try (ZipFile zipFile = new ZipFile(Path.of(System.getProperty("java.home"), "lib", "src.zip").toFile())) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements() && sources.size() < maxFiles) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.getName().endsWith(".java")) continue;
+                String source = new String(zipFile.getInputStream(entry).readAllBytes(), StandardCharsets.UTF_8);
+                if (2 * commentChars(source) < source.length()) continue;
+                assertEquals(tokens(source, false), tokens(source, true), entry.getName());
+                sources.add(source);
+                chars += source.length();
+            }
+        }
+        long[] fastest = {Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int pass = 0; pass < 8; pass++) {
+            for (int mode = 0; mode < 2; mode++) {
+                long start = System.nanoTime();
+                for (String source : sources) {
+                    lex(source, mode == 1);
+                }
+                fastest[mode] = Math.min(fastest[mode], System.nanoTime() - start);
+            }
+        }
+        System.out.println(sources.size() + " files, " + chars + " chars: nfa " + fastest[0] / 1_000_000
+                           + " ms, dfa " + fastest[1] / 1_000_000 + " ms");
+    }
+
+    private static int commentChars(String input) {
+        JavaLexer lexer = new JavaLexer(input);
+        int count = 0;
+        Token token = null;
+        do {
+            token = lexer.getNextToken(token);
+            if (token.getType() == Token.TokenType.SINGLE_LINE_COMMENT
+                || token.getType() == Token.TokenType.MULTI_LINE_COMMENT) {
+                count += token.getEndOffset() - token.getBeginOffset();
+            }
+        } while (token.getType() != Token.TokenType.EOF);
+        return count;
+    }
+
+    private static void lex(String input, boolean dfaFastPath) {
+        JavaLexer lexer = new JavaLexer(input);
+        lexer.setDfaFastPath(dfaFastPath);
+        Token token = null;
+        do {
+            token = lexer.getNextToken(token);
+        } while (token.getType() != Token.TokenType.EOF);
+    }
+
+    private static List<String> tokens(String input, boolean dfaFastPath) {
+        JavaLexer lexer = new JavaLexer(input);
+        lexer.setDfaFastPath(dfaFastPath);
+        List<String> list = new ArrayList<>();
+        Token token = null;
+        do {
+            token = lexer.getNextToken(token);
+            list.add(token.getType() + ":" + token.getBeginOffset() + ":" + token.getEndOffset());
+        } while (token.getType() != Token.TokenType.EOF);
+        return list;
+    }
+}
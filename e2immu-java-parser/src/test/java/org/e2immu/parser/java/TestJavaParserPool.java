@@ -0,0 +1,32 @@
+package org.e2immu.parser.java;
+
+import org.junit.jupiter.api.Test;
+import org.parsers.java.JavaParser;
+import org.parsers.java.ParseException;
+import org.parsers.java.ast.CompilationUnit;
+import org.parsers.java.ast.Identifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestJavaParserPool {
+
+    @Test
+    public void test() {
+        JavaParserPool pool = new JavaParserPool(p -> p.setParserTolerant(false));
+        JavaParser p1 = pool.acquire("A.java", "class A { void m( { }");
+        assertThrows(ParseException.class, p1::CompilationUnit);
+        pool.release(p1);
+
+        JavaParser p2 = pool.acquire("B.java", "package b;\nclass B { int i; }");
+        assertSame(p1, p2);
+        assertFalse(p2.isParserTolerant());
+        CompilationUnit cu = p2.CompilationUnit();
+        assertEquals("B.java", cu.getInputSource());
+        assertEquals("B", cu.descendants(Identifier.class).get(1).getSource());
+        assertEquals(2, cu.descendants(Identifier.class).get(2).getBeginLine());
+
+        JavaParser p3 = pool.acquire("C.java", "class C { }");
+        assertNotSame(p2, p3);
+        assertEquals("C", p3.CompilationUnit().firstDescendantOfType(Identifier.class).getSource());
+    }
+}
@@ -0,0 +1,63 @@
+package org.e2immu.parser.java;
+
+import org.junit.jupiter.api.Test;
+import org.parsers.java.JavaParser;
+import org.parsers.java.MappedSource;
+import org.parsers.java.ast.CompilationUnit;
+import org.parsers.java.ast.Identifier;
+import org.parsers.java.ast.StringLiteral;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMappedSource {
+
+    private static CharSequence open(String content, byte[] prefix) throws IOException {
+        Path path = Files.createTempFile("mapped", ".java");
+        try {
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            byte[] all = new byte[prefix.length + bytes.length];
+            System.arraycopy(prefix, 0, all, 0, prefix.length);
+            System.arraycopy(bytes, 0, all, prefix.length, bytes.length);
+            Files.write(path, all);
+            return MappedSource.open(path, null);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testAscii() throws IOException {
+        String content = "class X { int i; }\n";
+        CharSequence cs = open(content, new byte[0]);
+        assertEquals(content, cs.toString());
+        assertEquals('X', cs.charAt(6));
+        assertEquals("int", cs.subSequence(10, 13).toString());
+        CompilationUnit cu = new JavaParser(cs).CompilationUnit();
+        assertEquals("i", cu.descendants(Identifier.class).get(1).getSource());
+    }
+
+    @Test
+    public void testUtf8() throws IOException {
+        String content = "class Xé { String s = \"中😀!\"; }\n";
+        CharSequence cs = open(content, new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+        assertEquals(content.length(), cs.length());
+        for (int i = content.length() - 1; i >= 0; i--) {
+            assertEquals(content.charAt(i), cs.charAt(i), "at " + i);
+        }
+        assertEquals(content, cs.toString());
+        CompilationUnit cu = new JavaParser(cs).CompilationUnit();
+        assertEquals("Xé", cu.descendants(Identifier.class).get(0).getSource());
+        assertEquals("\"中😀!\"", cu.firstDescendantOfType(StringLiteral.class).getSource());
+    }
+
+    @Test
+    public void testMalformed() throws IOException {
+        CharSequence cs = open("class X {}\n", new byte[]{(byte) 0xC3, '/', '/'});
+        assertEquals("�//class X {}\n", cs.toString());
+    }
+}
@@ -0,0 +1,73 @@
+package org.e2immu.parser.java;
+
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+import org.parsers.java.JavaParser;
+import org.parsers.java.Node;
+import org.parsers.java.ast.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestNodeVisitor {
+
+    @Language("java")
+    private static final String INPUT = """
+            package a.b;
+            class X {
+                int method(int p) {
+                    return p + 1;
+                }
+            }
+            """;
+
+    private static class Collector extends Node.Visitor {
+        final List<String> identifiers = new ArrayList<>();
+        int methods;
+        int expressions;
+
+        public void visit(Identifier identifier) {
+            identifiers.add(identifier.getSource());
+        }
+
+        // non-public handler
+        void visit(MethodDeclaration methodDeclaration) {
+            methods++;
+            recurse(methodDeclaration);
+        }
+
+        // handler for an interface
+        private void visit(Expression expression) {
+            expressions++;
+            recurse(expression);
+        }
+    }
+
+    @Test
+    public void test() {
+        CompilationUnit cu = new JavaParser(INPUT).CompilationUnit();
+        Collector collector = new Collector();
+        collector.visit(cu);
+        assertEquals(List.of("a", "b", "X", "method", "p", "p"), collector.identifiers);
+        assertEquals(1, collector.methods);
+        assertTrue(collector.expressions > 0);
+
+        Collector second = new Collector();
+        second.visit(cu);
+        assertEquals(collector.identifiers, second.identifiers);
+    }
+
+    @Test
+    public void testException() {
+        CompilationUnit cu = new JavaParser(INPUT).CompilationUnit();
+        Node.Visitor visitor = new Node.Visitor() {
+            public void visit(Identifier identifier) {
+                throw new IllegalStateException(identifier.getSource());
+            }
+        };
+        IllegalStateException ise = assertThrows(IllegalStateException.class, () -> visitor.visit(cu));
+        assertEquals("a", ise.getMessage());
+    }
+}
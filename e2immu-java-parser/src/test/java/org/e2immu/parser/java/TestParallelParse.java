@@ -0,0 +1,137 @@
+package org.e2immu.parser.java;
+
+import org.e2immu.language.cst.api.info.TypeInfo;
+import org.e2immu.language.inspection.api.parser.Context;
+import org.e2immu.language.inspection.api.parser.Resolver;
+import org.e2immu.language.inspection.api.parser.Summary;
+import org.e2immu.language.inspection.impl.parser.*;
+import org.e2immu.support.Either;
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+import org.parsers.java.ast.CompilationUnit;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestParallelParse extends CommonTestParse {
+
+    @Language("java")
+    private static final String INPUT_A = """
+            package a;
+            public class A extends B {
+                int f() {
+                    return new B().g() + h;
+                }
+            }
+            """;
+
+    @Language("java")
+    private static final String INPUT_B = """
+            package a;
+            public class B extends C {
+                int g() {
+                    return 1;
+                }
+            }
+            """;
+
+    @Language("java")
+    private static final String INPUT_C = """
+            package a;
+            public class C {
+                int h;
+                record R(int x) { }
+            }
+            """;
+
+    @Test
+    public void test() {
+        Summary summary = new SummaryImpl(true);
+        SourceTypeMapImpl stm = new SourceTypeMapImpl();
+        TypeContextImpl typeContext = new TypeContextImpl(runtime, new CompiledTypesManagerImpl(), stm, false);
+        Resolver resolver = new ResolverImpl(runtime.computeMethodOverrides(), new ParseHelperImpl(runtime), false);
+        Context rootContext = ContextImpl.create(runtime, summary, resolver, typeContext, false);
+
+        List<String> contents = List.of(INPUT_A, INPUT_B, INPUT_C);
+        List<ParallelScan.Input> scanInputs = IntStream.range(0, contents.size())
+                .mapToObj(i -> new ParallelScan.Input(URI.create("file:/a/" + (char) ('A' + i) + ".java"), null,
+                        null, () -> contents.get(i)))
+                .toList();
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        ParallelScan.Result scanResult;
+        List<CompilationUnit> cus;
+        try {
+            ParallelScan.Result sr = new ParallelScan(summary, runtime, new JavaParserPool(), forkJoinPool)
+                    .scan(scanInputs, false);
+            stm.putAll(sr.sourceTypes());
+
+            List<ParallelParse.Input> parseInputs = IntStream.range(0, contents.size())
+                    .mapToObj(i -> new ParallelParse.Input(sr.scanResults().get(i).compilationUnit(),
+                            () -> contents.get(i)))
+                    .toList();
+            cus = new ParallelParse(summary, forkJoinPool).parse(parseInputs);
+            scanResult = sr;
+        } finally {
+            forkJoinPool.shutdown();
+        }
+        assertEquals(3, cus.size());
+        assertTrue(cus.stream().allMatch(Objects::nonNull));
+
+        // types are built on this thread, in the order of the inputs
+        ParseCompilationUnit parseCompilationUnit = new ParseCompilationUnit(rootContext);
+        List<TypeInfo> types = new ArrayList<>();
+        List<ParseTypeDeclaration.DelayedParsingInformation> delayed = new ArrayList<>();
+        for (int i = 0; i < cus.size(); i++) {
+            parseCompilationUnit.parse(scanResult.scanResults().get(i).compilationUnit(), cus.get(i))
+                    .forEach(either -> {
+                        if (either.isLeft()) types.add(either.getLeft());
+                        else delayed.add(either.getRight());
+                    });
+        }
+        while (!delayed.isEmpty()) {
+            List<ParseTypeDeclaration.DelayedParsingInformation> toRetry = List.copyOf(delayed);
+            delayed.clear();
+            toRetry.forEach(d -> {
+                Either<TypeInfo, ParseTypeDeclaration.DelayedParsingInformation> either
+                        = parseCompilationUnit.parseDelayedType(d);
+                if (either.isLeft()) types.add(either.getLeft());
+                else delayed.add(either.getRight());
+            });
+            if (delayed.size() == toRetry.size()) break;
+        }
+        rootContext.resolver().resolve(true);
+
+        assertTrue(delayed.isEmpty());
+        assertEquals(List.of("a.A", "a.B", "a.C"), types.stream().map(TypeInfo::fullyQualifiedName)
+                .sorted().toList());
+        TypeInfo a = scanResult.sourceTypes().get("a.A");
+        assertEquals("a.B", a.parentClass().typeInfo().fullyQualifiedName());
+        assertEquals(1, a.methods().size());
+        TypeInfo r = scanResult.sourceTypes().get("a.C.R");
+        assertTrue(r.typeNature().isRecord());
+        assertFalse(summary.haveErrors());
+    }
+
+    @Test
+    public void testParseException() {
+        Summary summary = new SummaryImpl(false);
+        List<ParallelScan.Input> scanInputs = List.of(
+                new ParallelScan.Input(URI.create("file:/a/B.java"), null, null, () -> INPUT_B),
+                new ParallelScan.Input(URI.create("file:/a/C.java"), null, null, () -> INPUT_C));
+        ParallelScan.Result sr = new ParallelScan(summary, runtime).scan(scanInputs, false);
+        List<ParallelParse.Input> parseInputs = List.of(
+                new ParallelParse.Input(sr.scanResults().get(0).compilationUnit(), () -> "package a; class B {"),
+                new ParallelParse.Input(sr.scanResults().get(1).compilationUnit(), () -> INPUT_C));
+        List<CompilationUnit> cus = new ParallelParse(summary).parse(parseInputs);
+
+        assertNull(cus.get(0));
+        assertNotNull(cus.get(1));
+        assertEquals(1, summary.parseExceptions().size());
+    }
+}
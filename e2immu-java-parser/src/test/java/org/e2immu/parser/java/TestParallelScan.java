@@ -0,0 +1,102 @@
+package org.e2immu.parser.java;
+
+import org.e2immu.language.inspection.api.parser.Summary;
+import org.e2immu.language.inspection.impl.parser.SummaryImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestParallelScan extends CommonTestParse {
+
+    private static List<ParallelScan.Input> inputs() {
+        return IntStream.range(0, 20).mapToObj(i -> {
+            String content = i == 7
+                    ? "package p7; class C7 { void m( { } }"
+                    : "package p" + i + "; public class C" + i + "<T> { interface I { } record R(int x) { } }";
+            return new ParallelScan.Input(URI.create("file:/p" + i + "/C" + i + ".java"), null, null,
+                    () -> content);
+        }).toList();
+    }
+
+    @Test
+    public void test() {
+        Summary summary = new SummaryImpl(false);
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        ParallelScan.Result result;
+        try {
+            ParallelScan parallelScan = new ParallelScan(summary, runtime, new JavaParserPool(), forkJoinPool);
+            result = parallelScan.scan(inputs(), false);
+        } finally {
+            forkJoinPool.shutdown();
+        }
+
+        assertEquals(19 * 3, result.sourceTypes().size());
+        assertEquals("p3.C3.R", result.sourceTypes().get("p3.C3.R").fullyQualifiedName());
+        assertEquals(1, result.sourceTypes().get("p3.C3").typeParameters().size());
+        assertEquals(20, result.scanResults().size());
+        assertEquals("p19", result.scanResults().get(19).compilationUnit().packageName());
+        assertNull(result.scanResults().get(7).compilationUnit());
+
+        assertTrue(summary.haveErrors());
+        assertEquals(1, summary.parseExceptions().size());
+    }
+
+    @Test
+    public void testDeterministic() {
+        Set<String> keys = null;
+        List<String> packageNames = null;
+        for (int parallelism : new int[]{1, 2, 8}) {
+            ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism);
+            ParallelScan.Result result;
+            try {
+                ParallelScan parallelScan = new ParallelScan(new SummaryImpl(false), runtime, new JavaParserPool(),
+                        forkJoinPool);
+                result = parallelScan.scan(inputs(), false);
+            } finally {
+                forkJoinPool.shutdown();
+            }
+            List<String> names = result.scanResults().stream()
+                    .map(sr -> sr.compilationUnit() == null ? "-" : sr.compilationUnit().packageName()).toList();
+            if (keys == null) {
+                keys = result.sourceTypes().keySet();
+                packageNames = names;
+            } else {
+                assertEquals(keys, result.sourceTypes().keySet());
+                assertEquals(packageNames, names);
+            }
+        }
+    }
+
+    @Test
+    public void testFailFast() {
+        ParallelScan parallelScan = new ParallelScan(new SummaryImpl(true), runtime);
+        assertThrows(Summary.FailFastException.class, () -> parallelScan.scan(inputs(), false));
+    }
+
+    @Test
+    public void testMapped() throws IOException {
+        Path path = Files.createTempFile("Mapped", ".java");
+        try {
+            Files.writeString(path, "package p; /* é */ public class Mapped { String s = \"ü\"; }\n",
+                    StandardCharsets.UTF_8);
+            Summary summary = new SummaryImpl(true);
+            ParallelScan.Input input = new ParallelScan.Input(path.toUri(), null, null,
+                    ParallelScan.Content.mapped(path, null));
+            ParallelScan.Result result = new ParallelScan(summary, runtime).scan(List.of(input), false);
+            assertEquals("p.Mapped", result.sourceTypes().get("p.Mapped").fullyQualifiedName());
+            assertFalse(summary.haveErrors());
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
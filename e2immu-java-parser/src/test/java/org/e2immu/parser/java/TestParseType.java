@@ -6,10 +6,15 @@ import org.e2immu.language.cst.api.info.FieldInfo;
 import org.e2immu.language.cst.api.info.MethodInfo;
 import org.e2immu.language.cst.api.info.TypeInfo;
 import org.e2immu.language.cst.api.statement.ExpressionAsStatement;
+import org.e2immu.language.cst.api.statement.LocalTypeDeclaration;
+import org.e2immu.language.cst.api.statement.LocalVariableCreation;
+import org.e2immu.language.cst.api.statement.Statement;
 import org.e2immu.language.cst.api.statement.WhileStatement;
 import org.intellij.lang.annotations.Language;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class TestParseType extends CommonTestParse {
@@ -31,4 +36,62 @@ public class TestParseType extends CommonTestParse {
         MethodInfo methodInfo = typeInfo.findUniqueMethod("toArray", 0);
         assertEquals("Type Object[]", methodInfo.returnType().toString());
     }
+
+    @Language("java")
+    private static final String INPUT2 = """
+            package a.b;
+            class C {
+              String s;
+              static class D<String> {
+                String t;
+              }
+              String u;
+            }
+            """;
+
+    @Test
+    public void test2() {
+        TypeInfo typeInfo = parse(INPUT2);
+        FieldInfo s = typeInfo.getFieldByName("s", true);
+        assertEquals("java.lang.String", s.type().typeInfo().fullyQualifiedName());
+        TypeInfo d = typeInfo.subTypes().getFirst();
+        FieldInfo t = d.getFieldByName("t", true);
+        assertSame(d.typeParameters().getFirst(), t.type().typeParameter());
+        FieldInfo u = typeInfo.getFieldByName("u", true);
+        assertEquals("java.lang.String", u.type().typeInfo().fullyQualifiedName());
+    }
+
+    @Language("java")
+    private static final String INPUT3 = """
+            package a.b;
+            class C {
+              void m() {
+                String s = null;
+                class String { }
+                String t = null;
+                String u = null;
+              }
+            }
+            """;
+
+    // the local type shadows java.lang.String in the same type context, after String has been looked up there
+    @Test
+    public void test3() {
+        TypeInfo typeInfo = parse(INPUT3);
+        MethodInfo m = typeInfo.findUniqueMethod("m", 0);
+        List<Statement> statements = m.methodBody().statements();
+        if (statements.get(0) instanceof LocalVariableCreation s) {
+            assertEquals("java.lang.String", s.localVariable().parameterizedType().typeInfo().fullyQualifiedName());
+        } else fail();
+        if (statements.get(1) instanceof LocalTypeDeclaration ltd) {
+            TypeInfo localString = ltd.typeInfo();
+            assertEquals("String", localString.simpleName());
+            if (statements.get(2) instanceof LocalVariableCreation t) {
+                assertSame(localString, t.localVariable().parameterizedType().typeInfo());
+            } else fail();
+            if (statements.get(3) instanceof LocalVariableCreation u) {
+                assertSame(localString, u.localVariable().parameterizedType().typeInfo());
+            } else fail();
+        } else fail();
+    }
 }
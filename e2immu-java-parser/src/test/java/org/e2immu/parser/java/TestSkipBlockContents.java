@@ -0,0 +1,95 @@
+package org.e2immu.parser.java;
+
+import org.e2immu.language.cst.api.element.SingleLineComment;
+import org.e2immu.language.cst.api.expression.Lambda;
+import org.e2immu.language.cst.api.info.FieldInfo;
+import org.e2immu.language.cst.api.info.MethodInfo;
+import org.e2immu.language.cst.api.info.TypeInfo;
+import org.e2immu.language.cst.api.statement.Block;
+import org.e2immu.language.cst.api.statement.IfElseStatement;
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSkipBlockContents extends CommonTestParse {
+
+    @Override
+    protected boolean skipBlockContents() {
+        return true;
+    }
+
+    @Language("java")
+    private static final String INPUT = """
+            package a.b;
+            import java.util.function.Function;
+            class C {
+              static int count;
+              static {
+                count = 3;
+              }
+              Function<Integer, String> f = i -> {
+                String s = "}}" + '{' + i;
+                return s;
+              };
+              int k;
+              C(int k) {
+                this.k = k;
+              }
+              int method(int j) {
+                if (j > k) {
+                  /* { */
+                  return j;
+                }
+                String t = \"""
+                  }
+                  \""";
+                return k + t.length();
+              }
+            }
+            """;
+
+    @Test
+    public void test() {
+        TypeInfo typeInfo = parse(INPUT);
+        MethodInfo method = typeInfo.findUniqueMethod("method", 1);
+        assertEquals(3, method.methodBody().statements().size());
+        if (method.methodBody().statements().getFirst() instanceof IfElseStatement ifElse) {
+            assertEquals(1, ifElse.block().statements().size());
+        } else fail();
+        assertEquals(1, typeInfo.constructors().getFirst().methodBody().statements().size());
+        FieldInfo f = typeInfo.getFieldByName("f", true);
+        if (f.initializer() instanceof Lambda lambda) {
+            assertEquals(2, lambda.methodBody().statements().size());
+        } else fail();
+    }
+
+    @Language("java")
+    private static final String INPUT2 = """
+            package a.b;
+            import java.util.List;
+            class C {
+              int k;
+              C(int k) {
+                // nested
+                {
+                  List<List<String>> list = null;
+                  this.k = k;
+                }
+              }
+            }
+            """;
+
+    @Test
+    public void test2() {
+        TypeInfo typeInfo = parse(INPUT2);
+        MethodInfo constructor = typeInfo.constructors().getFirst();
+        if (constructor.methodBody().statements().getFirst() instanceof Block block) {
+            assertEquals(2, block.statements().size());
+            assertEquals(1, block.comments().size());
+            if (block.comments().getFirst() instanceof SingleLineComment slc) {
+                assertEquals("// nested\n", slc.print(null).toString());
+            } else fail();
+        } else fail();
+    }
+}
@@ -0,0 +1,85 @@
+package org.e2immu.parser.java;
+
+import org.junit.jupiter.api.Test;
+import org.parsers.java.JavaLexer;
+import org.parsers.java.JavaParser;
+import org.parsers.java.SymbolTable;
+import org.parsers.java.ast.*;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSymbolTable {
+
+    private static CompilationUnit parse(String input, SymbolTable symbolTable) {
+        JavaLexer lexer = new JavaLexer(input);
+        lexer.setSymbolTable(symbolTable);
+        return new JavaParser(lexer).CompilationUnit();
+    }
+
+    @Test
+    public void test() {
+        SymbolTable symbolTable = new SymbolTable();
+        CompilationUnit cu1 = parse("class X { String s; }", symbolTable);
+        CompilationUnit cu2 = parse("class Y { String t; String s; }", symbolTable);
+        List<Identifier> ids1 = cu1.descendants(Identifier.class);
+        List<Identifier> ids2 = cu2.descendants(Identifier.class);
+        assertEquals("String", ids1.get(1).getSource());
+        assertSame(ids1.get(1).getSource(), ids2.get(1).getSource());
+        assertSame(ids1.get(2).getSource(), ids2.get(4).getSource());
+        ids1.forEach(Identifier::getSource);
+        ids2.forEach(Identifier::getSource);
+        assertEquals(5, symbolTable.size()); // X, String, s, Y, t
+
+        KeyWord classKeyword = cu1.firstDescendantOfType(KeyWord.class);
+        assertSame("class", classKeyword.getSource());
+    }
+
+    @Test
+    public void testSameHashCode() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        SymbolTable symbolTable = new SymbolTable();
+        String aa = symbolTable.intern("x Aa", 2, 4);
+        String bb = symbolTable.intern("BB y", 0, 2);
+        assertEquals("Aa", aa);
+        assertEquals("BB", bb);
+        assertSame(aa, symbolTable.intern("Aa", 0, 2));
+        assertSame(bb, symbolTable.intern("(BB)", 1, 3));
+        assertEquals(2, symbolTable.size());
+    }
+
+    @Test
+    public void testWithoutSymbolTable() {
+        CompilationUnit cu = parse("class X { String s; String t; }", null);
+        List<Identifier> ids = cu.descendants(Identifier.class);
+        assertEquals(ids.get(1).getSource(), ids.get(3).getSource());
+        assertNotSame(ids.get(1).getSource(), ids.get(3).getSource());
+    }
+
+    @Test
+    public void testConcurrentGrowth() throws Exception {
+        SymbolTable symbolTable = new SymbolTable();
+        List<String> names = IntStream.range(0, 5000).mapToObj(i -> "name" + i).toList();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> futures = IntStream.range(0, 4).mapToObj(t -> executor.submit(() ->
+                    names.stream().map(n -> symbolTable.intern(" " + n + " ", 1, n.length() + 1)).toList())).toList();
+            List<String> first = futures.get(0).get();
+            for (Future<List<String>> future : futures) {
+                List<String> interned = future.get();
+                for (int i = 0; i < names.size(); i++) {
+                    assertEquals(names.get(i), interned.get(i));
+                    assertSame(first.get(i), interned.get(i));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(names.size(), symbolTable.size());
+    }
+}